@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.benchmarks;
+
+import org.bluemoondev.simplesql.SQLTable;
+import org.bluemoondev.simplesql.columns.BoolColumn;
+import org.bluemoondev.simplesql.columns.IntColumn;
+import org.bluemoondev.simplesql.columns.LongColumn;
+import org.bluemoondev.simplesql.columns.SQLColumn;
+import org.bluemoondev.simplesql.columns.StringColumn;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> BenchTable.java<br>
+ * <p>
+ * The table every benchmark runs against
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public class BenchTable extends SQLTable {
+
+	public static final SQLColumn<?>	ID		= new LongColumn("id", null, true).setNullable(false);
+	public static final SQLColumn<?>	NAME	= new StringColumn("name", "none", 64);
+	public static final SQLColumn<?>	SCORE	= new IntColumn("score", 0);
+	public static final SQLColumn<?>	ACTIVE	= new BoolColumn("active", false);
+
+	public static final BenchTable TABLE = new BenchTable();
+
+	public BenchTable() {
+		super("bench");
+	}
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> ConcurrentTableBenchmark.java<br>
+ * <p>
+ * {@link TableBenchmark} with four threads sharing the connection pool. The
+ * in-memory database has a single connection, so there the threads queue for
+ * the pool; the file database lets readers run side by side while writers
+ * take turns on SQLite's file lock
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+@State(Scope.Benchmark)
+@Threads(4)
+public class ConcurrentTableBenchmark extends TableBenchmark {
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.bluemoondev.simplesql.Batch;
+import org.bluemoondev.simplesql.Database;
+import org.bluemoondev.simplesql.SQLite;
+import org.bluemoondev.simplesql.exceptions.SSQLException;
+import org.bluemoondev.simplesql.utils.DataSet;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> Fixture.java<br>
+ * <p>
+ * Where a benchmark's SQLite database lives, either in a temporary file or in
+ * memory, chosen by the <code>storage</code> parameter
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+final class Fixture {
+
+	/** The number of rows in the table. Keys run from 0 to ROWS - 1 */
+	static final int ROWS = 1000;
+
+	static final String	FILE	= "file";
+	static final String	MEMORY	= "memory";
+
+	private final File dir;
+
+	/**
+	 * @param  storage     {@link #FILE} or {@link #MEMORY}
+	 * @throws IOException If the temporary directory could not be created
+	 */
+	Fixture(String storage) throws IOException {
+		if (FILE.equals(storage)) dir = Files.createTempDirectory("simplesql-bench").toFile();
+		else if (MEMORY.equals(storage)) dir = null;
+		else throw new IllegalArgumentException("Unknown storage " + storage);
+	}
+
+	/**
+	 * @return The database to hand to SimpleSQL
+	 */
+	Database database() {
+		return dir == null ? SQLite.inMemory("bench") : new SQLite(new File(dir, "bench.db"));
+	}
+
+	/**
+	 * @return The JDBC url of the same database, for the raw JDBC baseline
+	 */
+	String url() {
+		return dir == null ? "jdbc:sqlite::memory:" : "jdbc:sqlite://" + new File(dir, "bench.db").getAbsolutePath();
+	}
+
+	/**
+	 * Inserts {@link #ROWS} rows into the bench table through SimpleSQL
+	 *
+	 * @throws SSQLException If the rows could not be inserted
+	 */
+	static void fill() throws SSQLException {
+		Batch batch = BenchTable.TABLE.batch();
+		for (long i = 0; i < ROWS; i++) {
+			batch.insert(new DataSet(BenchTable.ID.name, i), new DataSet(BenchTable.NAME.name, "name" + i),
+					new DataSet(BenchTable.SCORE.name, (int) i), new DataSet(BenchTable.ACTIVE.name, i % 2 == 0));
+		}
+		batch.execute();
+	}
+
+	/**
+	 * Deletes the database file, if there is one
+	 */
+	void delete() {
+		if (dir == null) return;
+		for (File f : dir.listFiles()) { f.delete(); }
+		dir.delete();
+	}
+
+}
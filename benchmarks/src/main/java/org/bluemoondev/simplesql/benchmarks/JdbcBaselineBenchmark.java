@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.benchmarks;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> JdbcBaselineBenchmark.java<br>
+ * <p>
+ * The statements {@link TableBenchmark} makes SimpleSQL send, written by hand
+ * against one JDBC connection with statements prepared once up front. This is
+ * as fast as the driver gets, so it is the floor for the matching
+ * TableBenchmark numbers
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JdbcBaselineBenchmark {
+
+	@Param({ Fixture.FILE, Fixture.MEMORY })
+	public String storage;
+
+	private Fixture		fixture;
+	private Connection	conn;
+	private long		key;
+
+	private PreparedStatement upsert, selectName, exists, delete, selectScores;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException, SQLException {
+		fixture = new Fixture(storage);
+		conn = DriverManager.getConnection(fixture.url());
+		try (Statement st = conn.createStatement()) {
+			// The same table SimpleSQL creates for BenchTable
+			st.execute("CREATE TABLE IF NOT EXISTS bench (id BIGINT NOT NULL PRIMARY KEY, name VARCHAR(64) DEFAULT 'none' NOT NULL, "
+					+ "score INTEGER DEFAULT 0 NOT NULL, active BOOLEAN DEFAULT false NOT NULL)");
+		}
+		conn.setAutoCommit(false);
+		try (PreparedStatement insert = conn
+				.prepareStatement("INSERT INTO bench (id, name, score, active) VALUES (?, ?, ?, ?)")) {
+			for (long i = 0; i < Fixture.ROWS; i++) {
+				insert.setLong(1, i);
+				insert.setString(2, "name" + i);
+				insert.setInt(3, (int) i);
+				insert.setBoolean(4, i % 2 == 0);
+				insert.addBatch();
+			}
+			insert.executeBatch();
+		}
+		conn.commit();
+		conn.setAutoCommit(true);
+
+		upsert = conn.prepareStatement(
+				"INSERT INTO bench (id, score) VALUES (?, ?) ON CONFLICT (id) DO UPDATE SET score = excluded.score");
+		selectName = conn.prepareStatement("SELECT name FROM bench WHERE id = ?");
+		exists = conn.prepareStatement("SELECT 1 FROM bench WHERE id = ? LIMIT 1");
+		delete = conn.prepareStatement("DELETE FROM bench WHERE id = ?");
+		selectScores = conn.prepareStatement("SELECT score FROM bench");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		conn.close();
+		fixture.delete();
+	}
+
+	private long nextKey() {
+		key = (key + 1) % Fixture.ROWS;
+		return key;
+	}
+
+	@Benchmark
+	public void update() throws SQLException {
+		long k = nextKey();
+		upsert.setLong(1, k);
+		upsert.setInt(2, (int) k);
+		upsert.executeUpdate();
+	}
+
+	@Benchmark
+	public String getValueByKey() throws SQLException {
+		selectName.setLong(1, nextKey());
+		try (ResultSet rs = selectName.executeQuery()) {
+			return rs.next() ? rs.getString(1) : null;
+		}
+	}
+
+	@Benchmark
+	public boolean exists() throws SQLException {
+		exists.setLong(1, nextKey());
+		try (ResultSet rs = exists.executeQuery()) {
+			return rs.next();
+		}
+	}
+
+	@Benchmark
+	public void deleteAndInsert() throws SQLException {
+		long k = nextKey();
+		delete.setLong(1, k);
+		delete.executeUpdate();
+		upsert.setLong(1, k);
+		upsert.setInt(2, (int) k);
+		upsert.executeUpdate();
+	}
+
+	@Benchmark
+	public List<Integer> getValues() throws SQLException {
+		List<Integer> scores = new ArrayList<>(Fixture.ROWS);
+		try (ResultSet rs = selectScores.executeQuery()) {
+			while (rs.next()) { scores.add(rs.getInt(1)); }
+		}
+		return scores;
+	}
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bluemoondev.simplesql.Batch;
+import org.bluemoondev.simplesql.SQLite;
+import org.bluemoondev.simplesql.SimpleSQL;
+import org.bluemoondev.simplesql.exceptions.SSQLException;
+import org.bluemoondev.simplesql.utils.DataSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> PrimitiveReadBenchmark.java<br>
+ * <p>
+ * Compares the boxed read paths (getInt, getBool, getInts) with the
+ * primitive ones (readInt, readBool, getIntArray). Run with
+ * <code>-prof gc</code> and compare <code>gc.alloc.rate.norm</code>, the
+ * bytes allocated per operation
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveReadBenchmark {
+
+	private static final int ROWS = 1000;
+
+	private File	dir;
+	private long	key;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException, SSQLException {
+		dir = Files.createTempDirectory("simplesql-bench").toFile();
+		// The table has to exist before init so that init creates it
+		BenchTable table = BenchTable.TABLE;
+		SimpleSQL.init(new SQLite(new File(dir, "bench.db")));
+		Batch batch = table.batch();
+		for (long i = 0; i < ROWS; i++) {
+			batch.insert(new DataSet(BenchTable.ID.name, i), new DataSet(BenchTable.SCORE.name, (int) i),
+					new DataSet(BenchTable.ACTIVE.name, i % 2 == 0));
+		}
+		batch.execute();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SSQLException {
+		SimpleSQL.shutdown();
+		for (File f : dir.listFiles()) { f.delete(); }
+		dir.delete();
+	}
+
+	private long nextKey() {
+		key = (key + 1) % ROWS;
+		return key;
+	}
+
+	@Benchmark
+	public int getInt() throws SSQLException {
+		return BenchTable.TABLE.getInt(nextKey(), BenchTable.SCORE.name);
+	}
+
+	@Benchmark
+	public int readInt() throws SSQLException {
+		return BenchTable.TABLE.readInt(nextKey(), BenchTable.SCORE.name);
+	}
+
+	@Benchmark
+	public boolean getBool() throws SSQLException {
+		return BenchTable.TABLE.getBool(nextKey(), BenchTable.ACTIVE.name);
+	}
+
+	@Benchmark
+	public boolean readBool() throws SSQLException {
+		return BenchTable.TABLE.readBool(nextKey(), BenchTable.ACTIVE.name);
+	}
+
+	@Benchmark
+	public List<Integer> getIntsBoxed() throws SSQLException {
+		return BenchTable.TABLE.getInts(BenchTable.SCORE.name);
+	}
+
+	@Benchmark
+	public int[] getIntArray() throws SSQLException {
+		return BenchTable.TABLE.getIntArray(BenchTable.SCORE.name);
+	}
+
+}
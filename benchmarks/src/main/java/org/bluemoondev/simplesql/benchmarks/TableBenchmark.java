@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bluemoondev.simplesql.SimpleSQL;
+import org.bluemoondev.simplesql.exceptions.SSQLException;
+import org.bluemoondev.simplesql.utils.DataSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> TableBenchmark.java<br>
+ * <p>
+ * The everyday {@link org.bluemoondev.simplesql.SQLTable SQLTable} calls on
+ * a table of {@link Fixture#ROWS} rows, against an SQLite file and an
+ * in-memory SQLite database. {@link JdbcBaselineBenchmark} runs the same
+ * statements with plain JDBC, so the difference between the two is what
+ * SimpleSQL costs on top of the driver. {@link ConcurrentTableBenchmark} runs
+ * these with several threads at once
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableBenchmark {
+
+	@Param({ Fixture.FILE, Fixture.MEMORY })
+	public String storage;
+
+	private Fixture fixture;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException, SSQLException {
+		fixture = new Fixture(storage);
+		// The table has to exist before init so that init creates it
+		BenchTable table = BenchTable.TABLE;
+		SimpleSQL.init(fixture.database());
+		Fixture.fill();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SSQLException {
+		SimpleSQL.shutdown();
+		fixture.delete();
+	}
+
+	@Benchmark
+	public void update(Keys keys) throws SSQLException {
+		long key = keys.next();
+		BenchTable.TABLE.update(key, BenchTable.SCORE.name, (int) key);
+	}
+
+	@Benchmark
+	public String getValueByKey(Keys keys) throws SSQLException {
+		return BenchTable.TABLE.getValue(keys.next(), BenchTable.NAME.name);
+	}
+
+	@Benchmark
+	public String getValueByDataSet(Keys keys) throws SSQLException {
+		return BenchTable.TABLE.getValue(BenchTable.NAME.name, new DataSet(BenchTable.ID.name, keys.next()));
+	}
+
+	@Benchmark
+	public boolean exists(Keys keys) throws SSQLException {
+		return BenchTable.TABLE.exists(new DataSet(BenchTable.ID.name, keys.next()));
+	}
+
+	/**
+	 * Deletes a row and puts it back, so that every call has a row to delete.
+	 * Subtract {@link #update(Keys)} to get the delete on its own
+	 */
+	@Benchmark
+	public void deleteAndInsert(Keys keys) throws SSQLException {
+		long key = keys.next();
+		BenchTable.TABLE.delete(key);
+		BenchTable.TABLE.update(key, BenchTable.SCORE.name, (int) key);
+	}
+
+	@Benchmark
+	public List<Integer> getValues() throws SSQLException {
+		return BenchTable.TABLE.getValues(BenchTable.SCORE.name);
+	}
+
+	/**
+	 * The key each thread works on next. Threads start at random keys so they
+	 * don't all hit the same row
+	 */
+	@State(Scope.Thread)
+	public static class Keys {
+
+		private long key = ThreadLocalRandom.current().nextInt(Fixture.ROWS);
+
+		long next() {
+			key = (key + 1) % Fixture.ROWS;
+			return key;
+		}
+	}
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> TableProcessor.java<br>
+ * <p>
+ * Generates a table class and a DAO for every class annotated with
+ * <code>@org.bluemoondev.simplesql.annotations.Table</code>. The table class
+ * passes the columns straight to the <code>SQLTable</code> constructor, so no
+ * reflection happens when it is created, and has an <code>int</code>
+ * constant with the ordinal of each column. The DAO has a typed getter and
+ * setter per column that go through those ordinals
+ * </p>
+ *
+ * <p>
+ * Only the compiler's model of the annotated class is used, so this module
+ * does not depend on SimpleSQL
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+@SupportedAnnotationTypes(TableProcessor.TABLE)
+public class TableProcessor extends AbstractProcessor {
+
+	static final String TABLE = "org.bluemoondev.simplesql.annotations.Table";
+
+	private static final String	COLUMN		= "org.bluemoondev.simplesql.columns.SQLColumn";
+	private static final String	SQL_TABLE	= "org.bluemoondev.simplesql.SQLTable";
+	private static final String	EXCEPTION	= "org.bluemoondev.simplesql.exceptions.SSQLException";
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() { return SourceVersion.latestSupported(); }
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment env) {
+		TypeElement table = processingEnv.getElementUtils().getTypeElement(TABLE);
+		TypeElement column = processingEnv.getElementUtils().getTypeElement(COLUMN);
+		if (table == null || column == null) return false;
+
+		for (Element e : env.getElementsAnnotatedWith(table)) {
+			if (e.getKind() != ElementKind.CLASS) {
+				error(e, "@Table can only be used on a class");
+				continue;
+			}
+			TypeElement type = (TypeElement) e;
+			List<Column> columns = columns(type, column);
+			if (columns == null) continue;
+			if (columns.isEmpty()) {
+				error(type, type.getSimpleName() + " has no static SQLColumn fields");
+				continue;
+			}
+
+			String pkg = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+			try {
+				writeTable(pkg, type, tableName(type, table), columns);
+				writeDao(pkg, type, columns);
+			} catch (IOException ex) {
+				error(type, "Failed to generate the table for " + type.getSimpleName() + ": " + ex.getMessage());
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return The column fields in declaration order, or null if one of them
+	 *         can't be used
+	 */
+	private List<Column> columns(TypeElement type, TypeElement column) {
+		Types types = processingEnv.getTypeUtils();
+		TypeMirror columnType = types.erasure(column.asType());
+		List<Column> columns = new ArrayList<>();
+		boolean valid = true;
+		for (Element member : type.getEnclosedElements()) {
+			if (member.getKind() != ElementKind.FIELD) continue;
+			VariableElement field = (VariableElement) member;
+			if (!types.isAssignable(types.erasure(field.asType()), columnType)) continue;
+
+			Set<Modifier> modifiers = field.getModifiers();
+			if (!modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.PRIVATE)) {
+				error(field, "SQLColumn fields of a @Table class must be static and not private");
+				valid = false;
+				continue;
+			}
+			columns.add(new Column(field.getSimpleName().toString(), valueType(field.asType(), columnType)));
+		}
+		return valid ? columns : null;
+	}
+
+	/**
+	 * @return The type argument the field's type gives SQLColumn, or Object if
+	 *         it can't be named
+	 */
+	private String valueType(TypeMirror type, TypeMirror columnType) {
+		Types types = processingEnv.getTypeUtils();
+		if (types.isSameType(types.erasure(type), columnType)) {
+			List<? extends TypeMirror> args = ((DeclaredType) type).getTypeArguments();
+			if (args.size() != 1) return "java.lang.Object";
+			TypeKind kind = args.get(0).getKind();
+			return kind == TypeKind.DECLARED || kind == TypeKind.ARRAY ? args.get(0).toString() : "java.lang.Object";
+		}
+		for (TypeMirror sup : types.directSupertypes(type)) {
+			if (types.isAssignable(types.erasure(sup), columnType)) return valueType(sup, columnType);
+		}
+		return "java.lang.Object";
+	}
+
+	private String tableName(TypeElement type, TypeElement table) {
+		for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+			if (!mirror.getAnnotationType().asElement().equals(table)) continue;
+			for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : mirror.getElementValues()
+					.entrySet()) {
+				if (e.getKey().getSimpleName().contentEquals("value")) return (String) e.getValue().getValue();
+			}
+		}
+		return type.getSimpleName().toString();
+	}
+
+	private void writeTable(String pkg, TypeElement type, String tableName, List<Column> columns)
+			throws IOException {
+		String name = type.getSimpleName() + "Table";
+		try (PrintWriter out = new PrintWriter(
+				processingEnv.getFiler().createSourceFile(qualified(pkg, name), type).openWriter())) {
+			header(out, pkg, type);
+			out.println("public class " + name + " extends " + SQL_TABLE + " {");
+			for (int i = 0; i < columns.size(); i++) {
+				out.println();
+				out.println("\t/** The ordinal of {@link " + type.getQualifiedName() + "#" + columns.get(i).field
+						+ "} */");
+				out.println("\tpublic static final int " + columns.get(i).field + " = " + i + ";");
+			}
+			out.println();
+			out.println("\tpublic " + name + "() {");
+			out.print("\t\tsuper(\"" + tableName.replace("\\", "\\\\").replace("\"", "\\\"") + "\"");
+			for (Column c : columns) { out.print(", " + type.getQualifiedName() + "." + c.field); }
+			out.println(");");
+			out.println("\t}");
+			out.println();
+			out.println("}");
+		}
+	}
+
+	private void writeDao(String pkg, TypeElement type, List<Column> columns) throws IOException {
+		String name = type.getSimpleName() + "Dao";
+		String tableClass = type.getSimpleName() + "Table";
+		try (PrintWriter out = new PrintWriter(
+				processingEnv.getFiler().createSourceFile(qualified(pkg, name), type).openWriter())) {
+			header(out, pkg, type);
+			out.println("public class " + name + " {");
+			out.println();
+			out.println("\tprivate final " + tableClass + " table;");
+			out.println();
+			out.println("\tpublic " + name + "(" + tableClass + " table) {");
+			out.println("\t\tthis.table = table;");
+			out.println("\t}");
+			out.println();
+			out.println("\tpublic " + tableClass + " getTable() { return table; }");
+			for (Column c : columns) {
+				String property = property(c.field);
+				out.println();
+				out.println("\tpublic " + c.type + " get" + property + "(Object key) throws " + EXCEPTION + " {");
+				out.println("\t\treturn table.valueAt(key, " + tableClass + "." + c.field + ");");
+				out.println("\t}");
+				out.println();
+				out.println("\tpublic void set" + property + "(Object key, " + c.type + " value) throws " + EXCEPTION
+						+ " {");
+				out.println("\t\ttable.updateAt(key, " + tableClass + "." + c.field + ", value);");
+				out.println("\t}");
+			}
+			out.println();
+			out.println("}");
+		}
+	}
+
+	private static void header(PrintWriter out, String pkg, TypeElement type) {
+		if (!pkg.isEmpty()) {
+			out.println("package " + pkg + ";");
+			out.println();
+		}
+		out.println("/**");
+		out.println(" * Generated by the SimpleSQL annotation processor from {@link " + type.getQualifiedName()
+				+ "}. Do not edit");
+		out.println(" */");
+	}
+
+	/**
+	 * Turns a field name like <code>FULL_NAME</code> or <code>fullName</code>
+	 * into <code>FullName</code>
+	 */
+	static String property(String field) {
+		boolean upper = field.equals(field.toUpperCase());
+		StringBuilder sb = new StringBuilder();
+		for (String part : field.split("_")) {
+			if (part.isEmpty()) continue;
+			sb.append(Character.toUpperCase(part.charAt(0)));
+			sb.append(upper ? part.substring(1).toLowerCase() : part.substring(1));
+		}
+		return sb.toString();
+	}
+
+	private static String qualified(String pkg, String name) {
+		return pkg.isEmpty() ? name : pkg + "." + name;
+	}
+
+	private void error(Element e, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, e);
+	}
+
+	private static final class Column {
+
+		private final String	field;
+		private final String	type;
+
+		private Column(String field, String type) {
+			this.field = field;
+			this.type = type;
+		}
+	}
+
+}
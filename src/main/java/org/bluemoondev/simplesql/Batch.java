@@ -0,0 +1,332 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bluemoondev.simplesql.columns.SQLColumn;
+import org.bluemoondev.simplesql.exceptions.SSQLException;
+import org.bluemoondev.simplesql.metrics.Metrics;
+import org.bluemoondev.simplesql.metrics.OperationType;
+import org.bluemoondev.simplesql.utils.Checks;
+import org.bluemoondev.simplesql.utils.DataSet;
+import org.bluemoondev.simplesql.utils.Injector;
+import org.bluemoondev.simplesql.utils.QueryTemplates.Operation;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> Batch.java<br>
+ * <p>
+ * Collects inserts, updates and deletes for a table and sends them with JDBC
+ * batching. Consecutive operations of the same shape share one prepared
+ * statement and are sent in chunks of {@link #setChunkSize(int) chunkSize}
+ * rows. The whole batch runs in one transaction, so it either all applies or
+ * none of it does. Inside {@link SimpleSQL#inTransaction(Transaction.Body)}
+ * it becomes part of that transaction instead. Operations run in the order
+ * they were added. On a table with write-behind, values queued for the rows
+ * and columns the batch updates or deletes by key are dropped, and inserts or
+ * operations by DataSet flush the queue first
+ * </p>
+ *
+ * <pre>
+ * int[] counts = table.batch().insert(new DataSet("id", 1L), new DataSet("name", "John"))
+ * 		.update(2L, "name", "Sara").delete(3L).execute();
+ * </pre>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public class Batch {
+
+	private final SQLTable		table;
+	private final List<Entry>	entries;
+	private int					chunkSize;
+	/** True for the batch write-behind flushes with, which bypasses the queue */
+	private final boolean		flushing;
+
+	/** Keys whose cached rows are stale once the batch has run */
+	private final List<Object>	touchedKeys;
+	/** Set when rows were written that aren't known by key */
+	private boolean				touchedUnknown;
+
+	/**
+	 * The rows and columns whose write-behind values the batch replaces. A
+	 * null name stands for the whole row
+	 */
+	private final List<Object>	replacedKeys;
+	private final List<String>	replacedNames;
+	/** Set when queued write-behind values have to be written first */
+	private boolean				flushFirst;
+
+	/**
+	 * Creates an empty batch. Use {@link SQLTable#batch()}
+	 *
+	 * @param table    The table the batch operates on
+	 * @param flushing True if write-behind is flushing its queue with this
+	 *                 batch
+	 */
+	Batch(SQLTable table, boolean flushing) {
+		this.table = table;
+		this.flushing = flushing;
+		entries = new ArrayList<>();
+		chunkSize = 1000;
+		touchedKeys = new ArrayList<>();
+		replacedKeys = new ArrayList<>();
+		replacedNames = new ArrayList<>();
+	}
+
+	/**
+	 * Sets how many rows are sent to the database at a time. Defaults to 1000
+	 *
+	 * @param  chunkSize The number of rows per executeBatch call
+	 * @return           this
+	 */
+	public Batch setChunkSize(int chunkSize) {
+		if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be at least 1");
+		this.chunkSize = chunkSize;
+		return this;
+	}
+
+	/**
+	 * Inserts a row with the given column values
+	 *
+	 * @param  row           The column values of the new row
+	 * @return               this
+	 * @throws SSQLException If the row is empty or names a column that does not
+	 *                       exist
+	 */
+	public Batch insert(DataSet... row) throws SSQLException {
+		if (row == null || row.length == 0) throw new SSQLException("The DataSet array must not be empty");
+		touched(row);
+		flushFirst = true;
+		return add(table.queries.get(Operation.INSERT, null, row), table.getInjector(0, row));
+	}
+
+	/**
+	 * Sets a column at the row with the given primary key, inserting the row
+	 * if it does not exist yet. See
+	 * {@link SQLTable#update(Object, String, Object)}. If the table has NOT
+	 * NULL columns without a default the row can't be inserted with just this
+	 * column, so it is only updated and the result is 0 when it does not exist
+	 *
+	 * @param  keyValue      The primary key value of the row
+	 * @param  name          The name of the column to update
+	 * @param  newValue      The new value for that column
+	 * @return               this
+	 * @throws SSQLException If a value is an invalid type, the column does not
+	 *                       exist or the table has no primary key
+	 */
+	public Batch update(Object keyValue, String name, Object newValue) throws SSQLException {
+		if (!Checks.isValidObject(keyValue)) throw new SSQLException("The keyValue is an invalid type");
+		if (!Checks.isValidObject(newValue)) throw new SSQLException("The newValue is an invalid type");
+		if (table.primaryKey == null) throw new SSQLException(table.getName() + " does not have a primary key");
+		SQLColumn<?> col = table.columns.get(name);
+		if (col == null) throw new SSQLException(name + " is not a valid column name");
+
+		touchedKeys.add(keyValue);
+		if (name.equals(table.primaryKey)) touchedKeys.add(newValue);
+		replaced(keyValue, name);
+
+		Injector injector = new Injector(2);
+		if (name.equals(table.primaryKey) || !table.canUpsert(name)) {
+			injector.put(1, col, newValue);
+			injector.put(2, table.keyColumn, keyValue);
+			return add(table.queries.getFor(Operation.UPDATE, name, table.primaryKey), injector);
+		}
+		injector.put(1, table.keyColumn, keyValue);
+		injector.put(2, col, newValue);
+		return add(table.queries.getFor(Operation.UPSERT, name, table.primaryKey), injector);
+	}
+
+	/**
+	 * Sets a column at every row matching the given values. Unlike
+	 * {@link SQLTable#update(String, Object, DataSet...)} no row is inserted
+	 * when nothing matches; the result for this operation is then 0
+	 *
+	 * @param  name          The name of the column to update
+	 * @param  newValue      The new value for that column
+	 * @param  where         The key-value pairs to match
+	 * @return               this
+	 * @throws SSQLException If the value is an invalid type, the column does not
+	 *                       exist or the DataSet array is empty
+	 */
+	public Batch update(String name, Object newValue, DataSet... where) throws SSQLException {
+		if (!Checks.isValidObject(newValue)) throw new SSQLException("The newValue is an invalid type");
+		if (where == null || where.length == 0) throw new SSQLException("The DataSet array must not be empty");
+		SQLColumn<?> col = table.columns.get(name);
+		if (col == null) throw new SSQLException(name + " is not a valid column name");
+		touchedUnknown = true;
+		flushFirst = true;
+		Injector injector = table.getInjector(1, where);
+		injector.put(1, col, newValue);
+		return add(table.queries.get(Operation.UPDATE, name, where), injector);
+	}
+
+	/**
+	 * Deletes the row with the given primary key
+	 *
+	 * @param  key           The primary key value of the row
+	 * @return               this
+	 * @throws SSQLException If the key is an invalid type or the table has no
+	 *                       primary key
+	 */
+	public Batch delete(Object key) throws SSQLException {
+		if (!Checks.isValidObject(key)) throw new SSQLException("The key is an invalid type");
+		if (table.primaryKey == null) throw new SSQLException(table.getName() + " does not have a primary key");
+		touchedKeys.add(key);
+		replaced(key, null);
+		return add(table.queries.getFor(Operation.DELETE, null, table.primaryKey), table.keyInjector(key));
+	}
+
+	/**
+	 * Deletes every row matching the given values
+	 *
+	 * @param  where         The key-value pairs to match
+	 * @return               this
+	 * @throws SSQLException If the DataSet array is empty
+	 */
+	public Batch delete(DataSet... where) throws SSQLException {
+		if (where == null || where.length == 0) throw new SSQLException("The DataSet array must not be empty");
+		touchedUnknown = true;
+		flushFirst = true;
+		return add(table.queries.get(Operation.DELETE, null, where), table.getInjector(0, where));
+	}
+
+	/**
+	 * @return The number of operations waiting to be executed
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Sends every operation to the database in one transaction and empties the
+	 * batch
+	 *
+	 * @return               The number of rows each operation changed, in the
+	 *                       order the operations were added. A driver may report
+	 *                       {@link java.sql.Statement#SUCCESS_NO_INFO
+	 *                       SUCCESS_NO_INFO} instead of a count
+	 * @throws SSQLException If any operation failed, in which case nothing is
+	 *                       applied
+	 */
+	public int[] execute() throws SSQLException {
+		int[] results = new int[entries.size()];
+		if (entries.isEmpty()) return results;
+
+		WriteBehind wb = flushing ? null : table.writeBehind;
+		if (wb == null) {
+			send(results);
+		} else {
+			// Writes queued before the batch must not land after it
+			if (flushFirst) table.flushPending();
+			wb.writeThrough(replacedKeys, replacedNames, () -> send(results));
+		}
+
+		entries.clear();
+		if (touchedUnknown) table.cacheClear();
+		else for (Object key : touchedKeys) { table.cacheInvalidate(key); }
+		touchedKeys.clear();
+		touchedUnknown = false;
+		replacedKeys.clear();
+		replacedNames.clear();
+		flushFirst = false;
+		return results;
+	}
+
+	private void send(int[] results) throws SSQLException {
+		try (Connection conn = SimpleSQL.getDatabase().getConnection()) {
+			if (SimpleSQL.getDatabase().getTransaction() != null) {
+				// Part of a bigger unit of work that commits or rolls back for us
+				run(conn, results);
+			} else {
+				conn.setAutoCommit(false);
+				try {
+					run(conn, results);
+					conn.commit();
+				} catch (SQLException ex) {
+					conn.rollback();
+					throw ex;
+				} finally {
+					conn.setAutoCommit(true);
+				}
+			}
+		} catch (SQLException ex) {
+			throw new SSQLException("Failed to execute batch on " + table.getName() + ", nothing was applied", ex);
+		}
+	}
+
+	private void run(Connection conn, int[] results) throws SQLException {
+		Metrics metrics = SimpleSQL.getMetrics();
+		int start = 0;
+		while (start < entries.size()) {
+			String query = entries.get(start).query;
+			int end = start + 1;
+			while (end < entries.size() && entries.get(end).query.equals(query)) { end++; }
+
+			try (PreparedStatement ps = conn.prepareStatement(query)) {
+				for (int chunk = start; chunk < end; chunk += chunkSize) {
+					int stop = Math.min(end, chunk + chunkSize);
+					long begin = metrics.start();
+					long rows = 0;
+					boolean failed = true;
+					try {
+						for (int i = chunk; i < stop; i++) {
+							entries.get(i).injector.inject(ps);
+							ps.addBatch();
+						}
+						int[] counts = ps.executeBatch();
+						System.arraycopy(counts, 0, results, chunk, counts.length);
+						for (int c : counts) { if (c > 0) rows += c; }
+						failed = false;
+					} finally {
+						metrics.record(table.getName(), OperationType.WRITE, query, begin, rows, failed);
+					}
+				}
+			}
+			start = end;
+		}
+	}
+
+	private void replaced(Object keyValue, String name) {
+		replacedKeys.add(keyValue);
+		replacedNames.add(name);
+	}
+
+	private void touched(DataSet[] row) {
+		Object key = table.keyOf(row, false);
+		if (key != null) touchedKeys.add(key);
+		else touchedUnknown = true;
+	}
+
+	private Batch add(String query, Injector injector) {
+		entries.add(new Entry(query, injector));
+		return this;
+	}
+
+	private static final class Entry {
+
+		private final String	query;
+		private final Injector	injector;
+
+		private Entry(String query, Injector injector) {
+			this.query = query;
+			this.injector = injector;
+		}
+	}
+
+}
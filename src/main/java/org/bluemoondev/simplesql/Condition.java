@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql;
+
+import java.util.Arrays;
+
+import org.bluemoondev.simplesql.columns.SQLColumn;
+import org.bluemoondev.simplesql.utils.Injector;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> Condition.java<br>
+ * <p>
+ * A filter for the WHERE clause of a {@link Query}. Values are never put into
+ * the SQL text, they are bound as parameters by the column they are compared
+ * to, so the same shape of condition always produces the same statement.
+ * Conditions never change and can be kept and reused
+ * </p>
+ *
+ * <pre>
+ * Condition adults = AGE.ge(18).and(TEAM.in("red", "blue").or(TEAM.isNull()));
+ * </pre>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public final class Condition {
+
+	private final String			sql;
+	/** Every column this condition looks at */
+	private final SQLColumn<?>[]	columns;
+	/** The column of each parameter, which binds its value */
+	private final SQLColumn<?>[]	params;
+	private final Object[]			values;
+
+	private Condition(String sql, SQLColumn<?>[] columns, SQLColumn<?>[] params, Object[] values) {
+		this.sql = sql;
+		this.columns = columns;
+		this.params = params;
+		this.values = values;
+	}
+
+	/**
+	 * @return A condition matching the column's value. A null value matches
+	 *         rows where the column is null
+	 */
+	public static <T> Condition eq(SQLColumn<T> col, T value) {
+		return value == null ? isNull(col) : compare(col, " = ?", value);
+	}
+
+	/**
+	 * @return A condition matching anything but the column's value. A null
+	 *         value matches rows where the column is not null
+	 */
+	public static <T> Condition ne(SQLColumn<T> col, T value) {
+		return value == null ? isNotNull(col) : compare(col, " <> ?", value);
+	}
+
+	/**
+	 * @return A condition matching values less than the given one
+	 */
+	public static <T> Condition lt(SQLColumn<T> col, T value) {
+		return compare(col, " < ?", value);
+	}
+
+	/**
+	 * @return A condition matching values less than or equal to the given one
+	 */
+	public static <T> Condition le(SQLColumn<T> col, T value) {
+		return compare(col, " <= ?", value);
+	}
+
+	/**
+	 * @return A condition matching values greater than the given one
+	 */
+	public static <T> Condition gt(SQLColumn<T> col, T value) {
+		return compare(col, " > ?", value);
+	}
+
+	/**
+	 * @return A condition matching values greater than or equal to the given one
+	 */
+	public static <T> Condition ge(SQLColumn<T> col, T value) {
+		return compare(col, " >= ?", value);
+	}
+
+	/**
+	 * @return A condition matching values from <code>low</code> to
+	 *         <code>high</code>, both included
+	 */
+	public static <T> Condition between(SQLColumn<T> col, T low, T high) {
+		return new Condition(col.name + " BETWEEN ? AND ?", new SQLColumn<?>[] { col }, new SQLColumn<?>[] { col, col },
+				new Object[] { low, high });
+	}
+
+	/**
+	 * @return A condition matching any of the given values. No values match
+	 *         nothing
+	 */
+	@SafeVarargs
+	@SuppressWarnings("varargs")
+	public static <T> Condition in(SQLColumn<T> col, T... values) {
+		if (values.length == 0) return new Condition("1 = 0", new SQLColumn<?>[] { col }, new SQLColumn<?>[0], values);
+		StringBuilder sb = new StringBuilder(col.name).append(" IN (");
+		SQLColumn<?>[] cols = new SQLColumn<?>[values.length];
+		for (int i = 0; i < values.length; i++) {
+			sb.append(i == 0 ? "?" : ", ?");
+			cols[i] = col;
+		}
+		return new Condition(sb.append(")").toString(), new SQLColumn<?>[] { col }, cols, values.clone());
+	}
+
+	/**
+	 * @return A condition matching rows where the column is null
+	 */
+	public static Condition isNull(SQLColumn<?> col) {
+		return new Condition(col.name + " IS NULL", new SQLColumn<?>[] { col }, new SQLColumn<?>[0], new Object[0]);
+	}
+
+	/**
+	 * @return A condition matching rows where the column is not null
+	 */
+	public static Condition isNotNull(SQLColumn<?> col) {
+		return new Condition(col.name + " IS NOT NULL", new SQLColumn<?>[] { col }, new SQLColumn<?>[0],
+				new Object[0]);
+	}
+
+	/**
+	 * @param  other Another condition
+	 * @return       A condition matching rows that match both
+	 */
+	public Condition and(Condition other) {
+		return join(" AND ", other);
+	}
+
+	/**
+	 * @param  other Another condition
+	 * @return       A condition matching rows that match either one
+	 */
+	public Condition or(Condition other) {
+		return join(" OR ", other);
+	}
+
+	/**
+	 * @return A condition comparing the column to a value with the given
+	 *         operator, which must end in <code>?</code>
+	 */
+	static Condition compare(SQLColumn<?> col, String op, Object value) {
+		SQLColumn<?>[] cols = { col };
+		return new Condition(col.name + op, cols, cols, new Object[] { value });
+	}
+
+	private Condition join(String op, Condition other) {
+		return new Condition("(" + sql + op + other.sql + ")", concat(columns, other.columns),
+				concat(params, other.params), concat(values, other.values));
+	}
+
+	private static <E> E[] concat(E[] a, E[] b) {
+		E[] joined = Arrays.copyOf(a, a.length + b.length);
+		System.arraycopy(b, 0, joined, a.length, b.length);
+		return joined;
+	}
+
+	/**
+	 * @return Every column this condition looks at
+	 */
+	SQLColumn<?>[] getColumns() { return columns; }
+
+	/**
+	 * @return The values this condition binds, in parameter order
+	 */
+	Object[] getValues() { return values; }
+
+	/**
+	 * @return The SQL of this condition, with a <code>?</code> for each value
+	 */
+	String getSql() { return sql; }
+
+	/**
+	 * Binds the values after the first <code>offset</code> parameters
+	 *
+	 * @return The number of parameters bound
+	 */
+	int bind(Injector injector, int offset) {
+		for (int i = 0; i < values.length; i++) { injector.put(offset + i + 1, params[i], values[i]); }
+		return values.length;
+	}
+
+	@Override
+	public String toString() {
+		return sql;
+	}
+
+}
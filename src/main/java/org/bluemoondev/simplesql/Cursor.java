@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.bluemoondev.blutilities.debug.Log;
+import org.bluemoondev.simplesql.exceptions.SSQLException;
+import org.bluemoondev.simplesql.exceptions.UncheckedSSQLException;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> Cursor.java<br>
+ * <p>
+ * Streams the results of a query one row at a time instead of loading them
+ * all into a list. Rows are fetched from the database in groups of
+ * {@link org.bluemoondev.simplesql.pool.PoolConfig#setFetchSize(int)
+ * fetchSize}, so memory use stays the same no matter how many rows there are.
+ * A cursor holds on to a pooled connection until it is closed, either
+ * explicitly or by reading it to the end, so always use it in a
+ * try-with-resources block
+ * </p>
+ *
+ * <pre>
+ * try (Cursor&lt;Long&gt; ids = table.cursor("id")) {
+ * 	while (ids.hasNext()) process(ids.next());
+ * }
+ *
+ * try (Stream&lt;Long&gt; ids = table.&lt;Long&gt; cursor("id").stream()) {
+ * 	long total = ids.mapToLong(Long::longValue).sum();
+ * }
+ * </pre>
+ *
+ * Errors while reading are thrown as {@link UncheckedSSQLException}
+ *
+ * @param  <T> The type of each element
+ * @author     <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public final class Cursor<T> implements Iterator<T>, AutoCloseable {
+
+	private static final Log LOG = Log.get("SimpleSQL", Cursor.class);
+
+	private final String			query;
+	private final Connection		conn;
+	private final PreparedStatement	ps;
+	private final ResultSet			results;
+	private final Reader<T>			reader;
+
+	private boolean	fetched, hasRow, closed;
+
+	Cursor(String query, Connection conn, PreparedStatement ps, ResultSet results, Reader<T> reader) {
+		this.query = query;
+		this.conn = conn;
+		this.ps = ps;
+		this.results = results;
+		this.reader = reader;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (closed) return false;
+		if (!fetched) {
+			try {
+				hasRow = results.next();
+			} catch (SQLException ex) {
+				close();
+				throw new UncheckedSSQLException(new SSQLException("Failed to read from SQL query: " + query, ex));
+			}
+			fetched = true;
+			if (!hasRow) close();
+		}
+		return hasRow;
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		fetched = false;
+		try {
+			return reader.read(results);
+		} catch (SQLException ex) {
+			close();
+			throw new UncheckedSSQLException(new SSQLException("Failed to read from SQL query: " + query, ex));
+		}
+	}
+
+	/**
+	 * Wraps this cursor in a sequential stream. Closing the stream closes the
+	 * cursor
+	 *
+	 * @return A stream of the remaining elements
+	 */
+	public Stream<T> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+				.onClose(this::close);
+	}
+
+	/**
+	 * Closes the results and hands the connection back to the pool. Calling
+	 * this more than once does nothing
+	 */
+	@Override
+	public void close() {
+		if (closed) return;
+		closed = true;
+		try {
+			results.close();
+			ps.close();
+		} catch (SQLException ex) {
+			LOG.error("Failed to close a cursor", ex);
+		} finally {
+			try {
+				conn.close();
+			} catch (SQLException ex) {
+				LOG.error("Failed to return a cursor's connection", ex);
+			}
+		}
+	}
+
+	/**
+	 * Turns the current row into an element
+	 */
+	@FunctionalInterface
+	interface Reader<T> {
+
+		public T read(ResultSet results) throws SQLException;
+	}
+
+}
@@ -22,6 +22,10 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.logging.Level;
 
+import org.bluemoondev.simplesql.metrics.Metrics;
+import org.bluemoondev.simplesql.pool.ConnectionPool;
+import org.bluemoondev.simplesql.pool.PoolConfig;
+
 /**
  * <strong>Project:</strong> SimpleSQL<br>
  * <strong>File:</strong> Database.java<br>
@@ -37,8 +41,10 @@ public abstract class Database {
 
 	private static final Log LOG = Log.get("SimpleSQL", Database.class);
 
-	private Connection	conn;
-	protected String	name;
+	private PoolConfig						poolConfig;
+	private volatile ConnectionPool			pool;
+	private final ThreadLocal<Transaction>	transaction;
+	protected String						name;
 
 	/**
 	 * Creates a database using the specified driver
@@ -52,43 +58,116 @@ public abstract class Database {
 		} catch (InstantiationException | IllegalAccessException | ClassNotFoundException ex) {
 			LOG.error(ex.getMessage(), ex);
 		}
+		poolConfig = new PoolConfig();
+		transaction = new ThreadLocal<>();
+	}
+
+	/**
+	 * Sets the connection pool settings. This must be called before the first
+	 * connection is made, which is normally
+	 * {@link org.bluemoondev.simplesql.SimpleSQL#init(Database)
+	 * SimpleSQL.init(database)}
+	 * 
+	 * @param  config The pool settings to use
+	 * @return        this
+	 */
+	public final Database setPoolConfig(PoolConfig config) {
+		if (pool != null) throw new IllegalStateException("The connection pool has already been started");
+		this.poolConfig = config;
+		return this;
 	}
 
 	/**
-	 * Sets the connection
+	 * @return The connection pool settings
+	 */
+	public final PoolConfig getPoolConfig() { return poolConfig; }
+
+	/**
+	 * Gets the connection pool, starting it if needed
 	 * 
-	 * @param conn The connection to set
+	 * @return The connection pool
+	 * @throws SQLException If the pool's initial connections could not be opened
 	 */
-	public final void setConnection(Connection conn) { this.conn = conn; }
+	public final ConnectionPool getPool() throws SQLException {
+		ConnectionPool p = pool;
+		if (p == null) {
+			synchronized (this) {
+				p = pool;
+				if (p == null)
+					pool = p = new ConnectionPool(this::createConnection, poolConfig);
+			}
+		}
+		return p;
+	}
 
 	/**
-	 * Retrieves the connection and reconnects if needed
+	 * Borrows a connection from the pool. The connection <strong>must</strong>
+	 * be closed when done with, which hands it back to the pool. If the calling
+	 * thread is inside a {@link Transaction}, the transaction's connection is
+	 * returned instead and closing it does nothing
 	 * 
 	 * @return The connection
 	 * @throws SQLException If the connection was failed to be created or retrieved
 	 */
 	public final Connection getConnection() throws SQLException {
-		if (conn == null || conn.isClosed())
-			reactivateConnection();
+		Transaction tx = transaction.get();
+		if (tx != null) return tx.getConnection();
+		Metrics metrics = SimpleSQL.getMetrics();
+		long start = metrics.start();
+		Connection conn = getPool().borrow();
+		metrics.recordPoolWait(start);
 		return conn;
 	}
 
 	/**
-	 * Shuts down the connection to the database
+	 * @return The transaction bound to the calling thread, or null if there is
+	 *         none
+	 */
+	public final Transaction getTransaction() { return transaction.get(); }
+
+	/**
+	 * Binds a transaction to the calling thread, or unbinds it if null
 	 * 
-	 * @throws SQLException If there was an error while closing the connection
+	 * @param tx The transaction
 	 */
-	public final void closeConnection() throws SQLException {
-		if (conn != null && !conn.isClosed())
-			conn.close();
+	final void setTransaction(Transaction tx) {
+		if (tx == null) transaction.remove();
+		else transaction.set(tx);
 	}
 
 	/**
-	 * Reconnects to the database
+	 * Shuts down the connection pool and every connection to the database
+	 */
+	public final synchronized void closeConnection() {
+		if (pool != null) {
+			pool.close();
+			pool = null;
+		}
+	}
+
+	/**
+	 * Opens a new physical connection to the database. Called by the
+	 * connection pool whenever it needs another connection
 	 * 
+	 * @return The new connection
 	 * @throws SQLException If the connection was unable to be established
 	 */
-	public abstract void reactivateConnection() throws SQLException;
+	protected abstract Connection createConnection() throws SQLException;
+
+	/**
+	 * Builds a single statement that inserts a row with the given key columns
+	 * and value, or, if a row with those keys already exists, updates that
+	 * row's column instead. The parameters are the key values in order,
+	 * followed by the new value. The key columns must be covered by the
+	 * primary key or a unique index. The query is returned without a trailing
+	 * semicolon
+	 * 
+	 * @param tableName The name of the table
+	 * @param column    The column to set
+	 * @param keys      The names of the key columns
+	 * @return The upsert query
+	 */
+	public abstract String getUpsertQuery(String tableName, String column, String... keys);
 
 	/**
 	 * Closes a Result Set
@@ -104,12 +183,14 @@ public abstract class Database {
 	/**
 	 * Creates a prepared statement with the given query
 	 * 
+	 * @param conn  The connection, borrowed with {@link #getConnection()}, to
+	 *              prepare the statement on
 	 * @param query The SQL query to create a statement from
 	 * @return The created prepared statement
 	 * @throws SQLException If the prepared statement could not be created
 	 */
-	public final PreparedStatement getPreparedStatement(String query) throws SQLException {
-		return getConnection().prepareStatement(query);
+	public final PreparedStatement getPreparedStatement(Connection conn, String query) throws SQLException {
+		return conn.prepareStatement(query);
 	}
 
 	/**
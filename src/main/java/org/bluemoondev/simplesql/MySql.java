@@ -15,6 +15,7 @@ package org.bluemoondev.simplesql;
 
 import org.bluemoondev.blutilities.debug.Log;
 
+import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 
@@ -81,11 +82,22 @@ public class MySql extends Database {
 	}
 
 	@Override
-	public void reactivateConnection() throws SQLException {
+	protected Connection createConnection() throws SQLException {
+		// useCursorFetch makes a Cursor stream its rows through a server side
+		// cursor instead of reading the whole result into memory
 		String dsn = "jdbc:mysql://"	+ host + ":" + port + "/" + name
-						+ "?serverTimezone=" + timezone;
+						+ "?serverTimezone=" + timezone + "&useCursorFetch=true";
 		LOG.info("Connecting to MySQL database " + name);
-		setConnection(DriverManager.getConnection(dsn, user, password));
+		return DriverManager.getConnection(dsn, user, password);
+	}
+
+	@Override
+	public String getUpsertQuery(String tableName, String column, String... keys) {
+		StringBuilder sb = new StringBuilder("INSERT INTO ").append(tableName).append(" (")
+				.append(String.join(", ", keys)).append(", ").append(column).append(") VALUES (");
+		for (int i = 0; i < keys.length; i++) { sb.append("?, "); }
+		return sb.append("?) ON DUPLICATE KEY UPDATE ").append(column).append(" = VALUES(").append(column)
+				.append(")").toString();
 	}
 
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.bluemoondev.simplesql.columns.SQLColumn;
+import org.bluemoondev.simplesql.exceptions.SSQLException;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> Page.java<br>
+ * <p>
+ * One page of rows read by
+ * {@link SQLTable#page(String, int, String, String...) SQLTable.page} or
+ * {@link Query#page(String, boolean, int, String, String...) Query.page},
+ * along with the token that reads the page after it. The token holds the
+ * sort values of the last row, so the next page starts right after that row
+ * through the index instead of skipping all rows before it. Every page takes
+ * the same time to read no matter how deep it is
+ * </p>
+ *
+ * <pre>
+ * String token = null;
+ * do {
+ * 	Page page = table.page("score", 100, token, "id", "score");
+ * 	for (Row row : page.getRows()) process(row);
+ * 	token = page.getNextToken();
+ * } while (token != null);
+ * </pre>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public final class Page {
+
+	private final List<Row>	rows;
+	private final String	nextToken;
+
+	Page(List<Row> rows, String nextToken) {
+		this.rows = Collections.unmodifiableList(rows);
+		this.nextToken = nextToken;
+	}
+
+	/**
+	 * @return The rows of this page, in sort order
+	 */
+	public List<Row> getRows() { return rows; }
+
+	/**
+	 * @return The token that reads the next page, or null if this is the last
+	 *         one. Tokens are opaque and only valid for the same table, sort
+	 *         column and direction
+	 */
+	public String getNextToken() { return nextToken; }
+
+	/**
+	 * @return True if there is a page after this one
+	 */
+	public boolean hasNext() { return nextToken != null; }
+
+	/**
+	 * @return The number of rows on this page
+	 */
+	public int size() { return rows.size(); }
+
+	/**
+	 * @return True if the column's values can be written into a token
+	 */
+	static boolean isTokenType(Class<?> type) {
+		return type == Long.class || type == Integer.class || type == String.class || type == Boolean.class
+				|| type == Double.class || type == BigDecimal.class || type == UUID.class || type == Instant.class;
+	}
+
+	/**
+	 * Writes the sort values of a row into a token
+	 *
+	 * @param  spec The table, sort columns and direction the token is for
+	 * @param  seek The sort columns
+	 * @param  last The last row of the page
+	 * @return      The token
+	 */
+	static String encode(String spec, SQLColumn<?>[] seek, Row last) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeUTF(spec);
+			for (SQLColumn<?> col : seek) {
+				Object value = last.get(col.name);
+				out.writeUTF(String.valueOf(value));
+			}
+		} catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+	}
+
+	/**
+	 * Reads the sort values back out of a token
+	 *
+	 * @param  token         The token
+	 * @param  spec          The table, sort columns and direction of the page
+	 *                       being read
+	 * @param  seek          The sort columns
+	 * @return               The sort values, in column order
+	 * @throws SSQLException If the token is malformed or was made for another
+	 *                       table, sort column or direction
+	 */
+	static Object[] decode(String token, String spec, SQLColumn<?>[] seek) throws SSQLException {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+			if (!in.readUTF().equals(spec)) throw new SSQLException("The page token was made for another sort order");
+			Object[] values = new Object[seek.length];
+			for (int i = 0; i < seek.length; i++) { values[i] = parse(seek[i].getTypeClass(), in.readUTF()); }
+			return values;
+		} catch (IOException | RuntimeException ex) {
+			throw new SSQLException("The page token is invalid: " + token, ex);
+		}
+	}
+
+	private static Object parse(Class<?> type, String s) {
+		if (type == Long.class) return Long.valueOf(s);
+		if (type == Integer.class) return Integer.valueOf(s);
+		if (type == Boolean.class) return Boolean.valueOf(s);
+		if (type == Double.class) return Double.valueOf(s);
+		if (type == BigDecimal.class) return new BigDecimal(s);
+		if (type == UUID.class) return UUID.fromString(s);
+		if (type == Instant.class) return Instant.parse(s);
+		return s;
+	}
+
+	@Override
+	public String toString() {
+		return "Page{" + rows + ", next=" + nextToken + "}";
+	}
+
+}
@@ -0,0 +1,468 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bluemoondev.simplesql.columns.ColumnCodec;
+import org.bluemoondev.simplesql.columns.SQLColumn;
+import org.bluemoondev.simplesql.exceptions.SSQLException;
+import org.bluemoondev.simplesql.utils.Checks;
+import org.bluemoondev.simplesql.utils.Injector;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> Query.java<br>
+ * <p>
+ * Reads, updates or deletes the rows of a table that match a
+ * {@link Condition}, for filters that equality on a set of DataSets can't
+ * express. Reads can be sorted and paged. Every value is bound as a
+ * parameter, so the same query shape always reuses the same statement. A
+ * query is built on one thread and can be run more than once
+ * </p>
+ *
+ * <pre>
+ * List&lt;Row&gt; top = table.query().where(SCORE.gt(100).and(TEAM.in("red", "blue"))).orderByDesc("score")
+ * 		.limit(10).getRows("id", "score");
+ * int removed = table.query().where(LAST_SEEN.lt(cutoff).or(LAST_SEEN.isNull())).delete();
+ * </pre>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public final class Query {
+
+	private final SQLTable		table;
+	private Condition			where;
+	private final List<String>	order;
+	private long				limit;
+	private long				offset;
+
+	/**
+	 * Creates a query matching every row. Use {@link SQLTable#query()}
+	 *
+	 * @param table The table the query runs on
+	 */
+	Query(SQLTable table) {
+		this.table = table;
+		order = new ArrayList<>();
+		limit = -1;
+	}
+
+	/**
+	 * Only matches rows that match the condition. Calling this again matches
+	 * rows that match both conditions
+	 *
+	 * @param  condition The condition
+	 * @return           this
+	 */
+	public Query where(Condition condition) {
+		where = where == null ? condition : where.and(condition);
+		return this;
+	}
+
+	/**
+	 * Sorts the rows by a column, smallest first. Calling this again sorts
+	 * rows with the same value by the next column
+	 *
+	 * @param  name The name of the column
+	 * @return      this
+	 */
+	public Query orderBy(String name) {
+		order.add(name + " ASC");
+		return this;
+	}
+
+	/**
+	 * Sorts the rows by a column, largest first. See {@link #orderBy(String)}
+	 *
+	 * @param  name The name of the column
+	 * @return      this
+	 */
+	public Query orderByDesc(String name) {
+		order.add(name + " DESC");
+		return this;
+	}
+
+	/**
+	 * Reads at most this many rows
+	 *
+	 * @param  limit The number of rows
+	 * @return       this
+	 */
+	public Query limit(long limit) {
+		if (limit < 0) throw new IllegalArgumentException("limit must not be negative");
+		this.limit = limit;
+		return this;
+	}
+
+	/**
+	 * Skips this many rows before reading. The database still reads the rows
+	 * it skips, so deep pages get slower the deeper they are
+	 *
+	 * @param  offset The number of rows to skip
+	 * @return        this
+	 */
+	public Query offset(long offset) {
+		if (offset < 0) throw new IllegalArgumentException("offset must not be negative");
+		this.offset = offset;
+		return this;
+	}
+
+	/**
+	 * Reads a column of every matching row
+	 *
+	 * @param  <T>           The type of the column
+	 * @param  name          The name of the column
+	 * @return               The values, which is empty if nothing matches
+	 * @throws SSQLException If the column does not exist or the query failed
+	 */
+	public <T> List<T> getValues(String name) throws SSQLException {
+		SQLColumn<?> col = column(name);
+		Injector injector = new Injector();
+		String query = select(name, injector, limit);
+		return table.readValues(query, injector, col);
+	}
+
+	/**
+	 * Reads a column of the first matching row
+	 *
+	 * @param  <T>           The type of the column
+	 * @param  name          The name of the column
+	 * @return               The value, or null if nothing matches
+	 * @throws SSQLException If the column does not exist or the query failed
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getValue(String name) throws SSQLException {
+		ColumnCodec<?> codec = column(name).getCodec();
+		Injector injector = new Injector();
+		String query = select(name, injector, 1);
+		return table.read(query, injector, results -> results.next() ? (T) codec.read(results, 1) : null);
+	}
+
+	/**
+	 * Reads the chosen columns of every matching row
+	 *
+	 * @param  names         The columns to read, or none to read every column
+	 * @return               The rows, which is empty if nothing matches
+	 * @throws SSQLException If a column does not exist or the query failed
+	 */
+	public List<Row> getRows(String... names) throws SSQLException {
+		String[] selected = table.selected(names);
+		Injector injector = new Injector();
+		String query = select(String.join(", ", selected), injector, limit);
+		return table.readRows(selected, query, injector, false);
+	}
+
+	/**
+	 * Reads the chosen columns of the first matching row
+	 *
+	 * @param  names         The columns to read, or none to read every column
+	 * @return               The row, or null if nothing matches
+	 * @throws SSQLException If a column does not exist or the query failed
+	 */
+	public Row getRow(String... names) throws SSQLException {
+		String[] selected = table.selected(names);
+		Injector injector = new Injector();
+		String query = select(String.join(", ", selected), injector, 1);
+		List<Row> rows = table.readRows(selected, query, injector, true);
+		return rows.isEmpty() ? null : rows.get(0);
+	}
+
+	/**
+	 * Streams a column of every matching row. See
+	 * {@link SQLTable#cursor(String, org.bluemoondev.simplesql.utils.DataSet...)}
+	 *
+	 * @param  <T>           The type of the column
+	 * @param  name          The name of the column
+	 * @return               An open cursor over the values, which must be closed
+	 * @throws SSQLException If the column does not exist or the query failed
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Cursor<T> cursor(String name) throws SSQLException {
+		ColumnCodec<?> codec = column(name).getCodec();
+		Injector injector = new Injector();
+		String query = select(name, injector, limit);
+		return table.openCursor(query, injector, SimpleSQL.getDatabase().getPoolConfig().getFetchSize(),
+				results -> (T) codec.read(results, 1));
+	}
+
+	/**
+	 * Streams the chosen columns of every matching row. See
+	 * {@link SQLTable#rowCursor(String[], org.bluemoondev.simplesql.utils.DataSet...)}
+	 *
+	 * @param  names         The columns to read, or none to read every column
+	 * @return               An open cursor over the rows, which must be closed
+	 * @throws SSQLException If a column does not exist or the query failed
+	 */
+	public Cursor<Row> rowCursor(String... names) throws SSQLException {
+		String[] selected = table.selected(names);
+		ColumnCodec<?>[] codecs = table.codecs(selected);
+		Injector injector = new Injector();
+		String query = select(String.join(", ", selected), injector, limit);
+		return table.openCursor(query, injector, SimpleSQL.getDatabase().getPoolConfig().getFetchSize(),
+				results -> table.decodeRow(results, selected, codecs));
+	}
+
+	/**
+	 * @return               The number of matching rows, counted by the
+	 *                       database
+	 * @throws SSQLException If the query is sorted or paged, or failed
+	 */
+	public long count() throws SSQLException {
+		Injector injector = new Injector();
+		String query = aggregate("COUNT(*)", injector);
+		return table.read(query, injector, results -> results.next() ? results.getLong(1) : 0L);
+	}
+
+	/**
+	 * Adds up a numeric column over the matching rows. See
+	 * {@link SQLTable#sum(String, org.bluemoondev.simplesql.utils.DataSet...)}
+	 *
+	 * @param  <T>           The type of the sum
+	 * @param  name          The name of the column
+	 * @return               The sum, which is zero if nothing matches
+	 * @throws SSQLException If the column is not numeric, the query is sorted
+	 *                       or paged, or failed
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Number> T sum(String name) throws SSQLException {
+		SQLColumn<?> col = table.numeric(name);
+		Injector injector = new Injector();
+		return (T) table.readSum(col, aggregate("SUM(" + name + ")", injector), injector);
+	}
+
+	/**
+	 * @param  <T>           The type of the column
+	 * @param  name          The name of the column
+	 * @return               The smallest value of the column over the matching
+	 *                       rows, or null if nothing matches
+	 * @throws SSQLException If the column does not exist, the query is sorted
+	 *                       or paged, or failed
+	 */
+	public <T> T min(String name) throws SSQLException {
+		SQLColumn<?> col = column(name);
+		Injector injector = new Injector();
+		return table.readValue(col, aggregate("MIN(" + name + ")", injector), injector);
+	}
+
+	/**
+	 * @param  <T>           The type of the column
+	 * @param  name          The name of the column
+	 * @return               The largest value of the column over the matching
+	 *                       rows, or null if nothing matches
+	 * @throws SSQLException If the column does not exist, the query is sorted
+	 *                       or paged, or failed
+	 */
+	public <T> T max(String name) throws SSQLException {
+		SQLColumn<?> col = column(name);
+		Injector injector = new Injector();
+		return table.readValue(col, aggregate("MAX(" + name + ")", injector), injector);
+	}
+
+	/**
+	 * @param  name          The name of the column
+	 * @return               The average of a numeric column over the matching
+	 *                       rows, or null if nothing matches
+	 * @throws SSQLException If the column is not numeric, the query is sorted or
+	 *                       paged, or failed
+	 */
+	public Double avg(String name) throws SSQLException {
+		table.numeric(name);
+		Injector injector = new Injector();
+		return table.readAvg(aggregate("AVG(" + name + ")", injector), injector);
+	}
+
+	/**
+	 * @return               True if any row matches
+	 * @throws SSQLException If the query failed
+	 */
+	public boolean exists() throws SSQLException {
+		Injector injector = new Injector();
+		String query = select("1", injector, 1);
+		return table.read(query, injector, results -> results.next());
+	}
+
+	/**
+	 * Reads one page of the matching rows, sorted by a column. Instead of
+	 * skipping the rows before the page like {@link #offset(long)} does, the
+	 * page starts right after the last row of the page before, which the
+	 * token remembers. Rows with the same sort value are ordered by the
+	 * primary key, and rows where the sort column is null are left out. See
+	 * {@link Page}
+	 *
+	 * @param  sortColumn    The column to sort by, which must be the primary key
+	 *                       or indexed
+	 * @param  descending    True to sort largest first
+	 * @param  pageSize      The most rows on a page
+	 * @param  token         The {@link Page#getNextToken() token} of the page
+	 *                       before, or null for the first page
+	 * @param  names         The columns to read, or none to read every column
+	 * @return               The page
+	 * @throws SSQLException If the sort column can't be paged by, the token is
+	 *                       invalid, the query is already sorted or limited, or
+	 *                       the query failed
+	 */
+	public Page page(String sortColumn, boolean descending, int pageSize, String token, String... names)
+			throws SSQLException {
+		if (pageSize < 1) throw new IllegalArgumentException("pageSize must be at least 1");
+		if (!order.isEmpty() || limit >= 0 || offset > 0)
+			throw new SSQLException("A page sets its own ORDER BY and LIMIT");
+		SQLColumn<?>[] seek = table.seekColumns(sortColumn);
+		String direction = descending ? " DESC" : " ASC";
+		StringBuilder spec = new StringBuilder(table.getName());
+		for (SQLColumn<?> col : seek) { spec.append(':').append(col.name); }
+		spec.append(direction);
+
+		Query q = new Query(table);
+		if (where != null) q.where(where);
+		if (seek[0].isNullable()) q.where(seek[0].isNotNull());
+		if (token != null) q.where(after(seek, Page.decode(token, spec.toString(), seek), descending ? '<' : '>', 0));
+		for (SQLColumn<?> col : seek) { q.order.add(col.name + direction); }
+		// One row more than the page tells if there is a next page
+		q.limit = pageSize + 1L;
+
+		String[] selected = table.selected(names);
+		String[] read = selected;
+		for (SQLColumn<?> col : seek) {
+			if (!Arrays.asList(read).contains(col.name)) {
+				read = Arrays.copyOf(read, read.length + 1);
+				read[read.length - 1] = col.name;
+			}
+		}
+
+		List<Row> rows = q.getRows(read);
+		String next = null;
+		if (rows.size() > pageSize) {
+			rows = rows.subList(0, pageSize);
+			next = Page.encode(spec.toString(), seek, rows.get(pageSize - 1));
+		}
+		if (read != selected) {
+			List<Row> picked = new ArrayList<>(rows.size());
+			for (Row row : rows) { picked.add(row.select(selected)); }
+			rows = picked;
+		}
+		return new Page(rows, next);
+	}
+
+	/**
+	 * Matches rows sorted after the given values. Written as
+	 * <code>a &gt;= ? AND (a &gt; ? OR b &gt; ?)</code> rather than with row
+	 * values, so every database can seek the index on the first column
+	 */
+	private static Condition after(SQLColumn<?>[] seek, Object[] values, char op, int i) {
+		Condition past = Condition.compare(seek[i], " " + op + " ?", values[i]);
+		if (i == seek.length - 1) return past;
+		return Condition.compare(seek[i], " " + op + "= ?", values[i]).and(past.or(after(seek, values, op, i + 1)));
+	}
+
+	/**
+	 * Sets a column at every matching row. Nothing is inserted when no row
+	 * matches
+	 *
+	 * @param  name          The name of the column
+	 * @param  newValue      The new value
+	 * @return               The number of rows changed
+	 * @throws SSQLException If the column does not exist, the query is sorted
+	 *                       or paged, or the update failed
+	 */
+	public int update(String name, Object newValue) throws SSQLException {
+		if (!Checks.isValidObject(newValue)) throw new SSQLException("The newValue is an invalid type");
+		SQLColumn<?> col = column(name);
+		Injector injector = new Injector();
+		injector.put(1, col, newValue);
+		String query = write("UPDATE " + table.tableName + " SET " + col.set(), injector, 1);
+		int changed = table.write(query, injector);
+		table.cacheClear();
+		return changed;
+	}
+
+	/**
+	 * Deletes every matching row
+	 *
+	 * @return               The number of rows deleted
+	 * @throws SSQLException If the query is sorted or paged, or the delete
+	 *                       failed
+	 */
+	public int delete() throws SSQLException {
+		Injector injector = new Injector();
+		String query = write("DELETE FROM " + table.tableName, injector, 0);
+		int deleted = table.write(query, injector);
+		table.cacheClear();
+		return deleted;
+	}
+
+	private SQLColumn<?> column(String name) throws SSQLException {
+		SQLColumn<?> col = table.columns.get(name);
+		if (col == null) throw new SSQLException(name + " is not a valid column name");
+		return col;
+	}
+
+	private String select(String target, Injector injector, long limit) throws SSQLException {
+		table.flushPending();
+		StringBuilder sb = new StringBuilder("SELECT ").append(target).append(" FROM ").append(table.tableName);
+		int bound = where(sb, injector, 0);
+		for (int i = 0; i < order.size(); i++) {
+			String o = order.get(i);
+			column(o.substring(0, o.indexOf(' ')));
+			sb.append(i == 0 ? " ORDER BY " : ", ").append(o);
+		}
+		if (limit >= 0 || offset > 0) {
+			// Bound like any other value, so paging does not change the SQL
+			sb.append(" LIMIT ?");
+			injector.put(++bound, limit >= 0 ? limit : Long.MAX_VALUE);
+			if (offset > 0) {
+				sb.append(" OFFSET ?");
+				injector.put(++bound, offset);
+			}
+		}
+		return sb.append(";").toString();
+	}
+
+	private String aggregate(String target, Injector injector) throws SSQLException {
+		// An aggregate is one row, so it can't be sorted or paged
+		if (!order.isEmpty() || limit >= 0 || offset > 0)
+			throw new SSQLException("ORDER BY, LIMIT and OFFSET only apply to reading rows");
+		return select(target, injector, -1);
+	}
+
+	private String write(String head, Injector injector, int offset) throws SSQLException {
+		if (!order.isEmpty() || limit >= 0 || this.offset > 0)
+			throw new SSQLException("ORDER BY, LIMIT and OFFSET only apply to reading rows");
+		table.flushPending();
+		StringBuilder sb = new StringBuilder(head);
+		where(sb, injector, offset);
+		return sb.append(";").toString();
+	}
+
+	private int where(StringBuilder sb, Injector injector, int offset) throws SSQLException {
+		if (where == null) return offset;
+		for (SQLColumn<?> col : where.getColumns()) {
+			if (!table.columns.containsKey(col.name)) throw new SSQLException(col.name + " is not a valid column name");
+		}
+		for (Object value : where.getValues()) {
+			if (!Checks.isValidObject(value)) throw new SSQLException("A condition value is null or an invalid type");
+		}
+		sb.append(" WHERE ").append(where.getSql());
+		return offset + where.bind(injector, offset);
+	}
+
+	@Override
+	public String toString() {
+		return "Query{" + table.getName() + " where " + where + " order " + order + " limit " + limit + " offset "
+				+ offset + "}";
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql;
+
+import java.util.Arrays;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> Row.java<br>
+ * <p>
+ * Several columns of one table row, read in a single query by
+ * {@link SQLTable#getRow(org.bluemoondev.simplesql.utils.DataSet...) getRow}
+ * or {@link SQLTable#getRows(org.bluemoondev.simplesql.utils.DataSet...)
+ * getRows}. Each value has already been decoded to its column's type. A row
+ * is a snapshot and never changes
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public final class Row {
+
+	private final String[]	names;
+	private final Object[]	values;
+
+	/**
+	 * @param names  The column names, shared by every row of the same query
+	 * @param values The values, in the same order as the names
+	 */
+	Row(String[] names, Object[] values) {
+		this.names = names;
+		this.values = values;
+	}
+
+	/**
+	 * Gets the value of a column
+	 *
+	 * @param  <T>                      The type of the column
+	 * @param  name                     The name of the column
+	 * @return                          The value, which may be null
+	 * @throws IllegalArgumentException If the column was not read into this row
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(String name) {
+		return (T) values[indexOf(name)];
+	}
+
+	/**
+	 * @param  name The name of the column
+	 * @return      The long value of this column
+	 */
+	public long getLong(String name) {
+		return get(name);
+	}
+
+	/**
+	 * @param  name The name of the column
+	 * @return      The int value of this column
+	 */
+	public int getInt(String name) {
+		return get(name);
+	}
+
+	/**
+	 * @param  name The name of the column
+	 * @return      The String value of this column
+	 */
+	public String getString(String name) {
+		return get(name);
+	}
+
+	/**
+	 * @param  name The name of the column
+	 * @return      The boolean value of this column
+	 */
+	public boolean getBool(String name) {
+		return get(name);
+	}
+
+	/**
+	 * @param  name The name of the column
+	 * @return      True if the column was read into this row
+	 */
+	public boolean has(String name) {
+		for (String n : names) { if (n.equals(name)) return true; }
+		return false;
+	}
+
+	/**
+	 * @return The names of the columns in this row
+	 */
+	public String[] getNames() {
+		return names.clone();
+	}
+
+	/**
+	 * @return The number of columns in this row
+	 */
+	public int size() {
+		return names.length;
+	}
+
+	/**
+	 * @return A copy of this row with one column changed
+	 */
+	Row with(String name, Object value) {
+		Object[] copy = values.clone();
+		copy[indexOf(name)] = value;
+		return new Row(names, copy);
+	}
+
+	/**
+	 * @return A row holding only the given columns of this one
+	 */
+	Row select(String[] selected) {
+		Object[] picked = new Object[selected.length];
+		for (int i = 0; i < selected.length; i++) { picked[i] = values[indexOf(selected[i])]; }
+		return new Row(selected, picked);
+	}
+
+	private int indexOf(String name) {
+		for (int i = 0; i < names.length; i++) { if (names[i].equals(name)) return i; }
+		throw new IllegalArgumentException(name + " is not part of this row");
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("Row{");
+		for (int i = 0; i < names.length; i++) {
+			if (i > 0) sb.append(", ");
+			sb.append(names[i]).append('=').append(values[i]);
+		}
+		return sb.append('}').toString();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof Row)) return false;
+		Row r = (Row) o;
+		return Arrays.equals(names, r.names) && Arrays.equals(values, r.values);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(names) * 31 + Arrays.hashCode(values);
+	}
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bluemoondev.simplesql.utils.DataSet;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> RowCache.java<br>
+ * <p>
+ * A least recently used cache of rows read from a table, see
+ * {@link SQLTable#enableCache(int, long)}. Tables with a primary key cache
+ * whole rows by key. Tables without one cache single values by the column and
+ * DataSets they were looked up with
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public final class RowCache {
+
+	/** Returned by {@link #get(Object)} when nothing is cached */
+	static final Object MISSING = new Object();
+
+	/** Stands in for a cached "no such row" or null value */
+	private static final Object NULL = new Object();
+
+	private final int					maxEntries;
+	private final long					ttl;
+	private final Map<Object, Cached>	entries;
+
+	// All guarded by this
+	private long	generation;
+	private long	hits, misses, evictions;
+
+	/**
+	 * @param maxEntries The most rows or values to keep
+	 * @param ttl        How long an entry stays valid in milliseconds, or 0 to
+	 *                   keep entries until they are evicted or invalidated
+	 */
+	RowCache(int maxEntries, long ttl) {
+		this.maxEntries = maxEntries;
+		this.ttl = ttl;
+		entries = new LinkedHashMap<Object, Cached>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Object, Cached> eldest) {
+				if (size() <= RowCache.this.maxEntries) return false;
+				evictions++;
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * @return The cached row or value, which may be null, or {@link #MISSING}
+	 */
+	synchronized Object get(Object key) {
+		key = normalize(key);
+		Cached e = entries.get(key);
+		if (e != null && ttl > 0 && System.currentTimeMillis() > e.expiresAt) {
+			entries.remove(key);
+			evictions++;
+			e = null;
+		}
+		if (e == null) {
+			misses++;
+			return MISSING;
+		}
+		hits++;
+		return e.value == NULL ? null : e.value;
+	}
+
+	/**
+	 * Every change to the cache moves the generation on. A reader takes the
+	 * generation before it goes to the database and hands it back to
+	 * {@link #put(Object, Object, long)}, so that a value read before a write
+	 * can't be cached after the write invalidated it
+	 */
+	synchronized long generation() {
+		return generation;
+	}
+
+	/**
+	 * Caches a row or value, unless the cache changed since it was read
+	 */
+	synchronized void put(Object key, Object value, long readGeneration) {
+		if (readGeneration != generation) return;
+		entries.put(normalize(key), new Cached(value == null ? NULL : value, System.currentTimeMillis() + ttl));
+	}
+
+	/**
+	 * Sets one column of a cached row. A row that isn't cached, or is cached
+	 * as missing, is dropped instead since the rest of it is unknown
+	 */
+	synchronized void set(Object key, String name, Object value) {
+		generation++;
+		key = normalize(key);
+		Cached e = entries.get(key);
+		if (e == null) return;
+		if (!(e.value instanceof Row)) {
+			entries.remove(key);
+			return;
+		}
+		entries.put(key, new Cached(((Row) e.value).with(name, value), e.expiresAt));
+	}
+
+	/**
+	 * Drops whatever is cached for the key
+	 */
+	synchronized void invalidate(Object key) {
+		generation++;
+		entries.remove(normalize(key));
+	}
+
+	/**
+	 * Drops everything
+	 */
+	public synchronized void clear() {
+		generation++;
+		entries.clear();
+	}
+
+	/**
+	 * @return The number of rows or values cached
+	 */
+	public synchronized int size() { return entries.size(); }
+
+	/**
+	 * @return The number of lookups answered from the cache
+	 */
+	public synchronized long getHits() { return hits; }
+
+	/**
+	 * @return The number of lookups that had to go to the database
+	 */
+	public synchronized long getMisses() { return misses; }
+
+	/**
+	 * @return The number of entries dropped because the cache was full or they
+	 *         expired
+	 */
+	public synchronized long getEvictions() { return evictions; }
+
+	/**
+	 * @return The share of lookups answered from the cache, from 0 to 1
+	 */
+	public synchronized double getHitRatio() {
+		long total = hits + misses;
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	/**
+	 * @return The key a value looked up by column and DataSets is cached under
+	 */
+	static Object tupleKey(String name, DataSet... data) {
+		List<Object> key = new ArrayList<>(data.length * 2 + 1);
+		key.add(name);
+		for (DataSet d : data) {
+			key.add(d.name);
+			key.add(normalize(d.value));
+		}
+		return key;
+	}
+
+	/**
+	 * Widens whole numbers to Long, also inside composite keys, so that a row
+	 * written with an Integer key and read with a Long one, such as through
+	 * {@link SQLTable#readInt(long, String)}, is the same entry
+	 *
+	 * @param  key The key as the caller passed it
+	 * @return     The key to compare by
+	 */
+	static Object normalize(Object key) {
+		if (key instanceof Integer || key instanceof Short || key instanceof Byte) return ((Number) key).longValue();
+		if (!(key instanceof List)) return key;
+		List<?> values = (List<?>) key;
+		List<Object> normalized = null;
+		for (int i = 0; i < values.size(); i++) {
+			Object v = values.get(i);
+			Object n = normalize(v);
+			if (n != v && normalized == null) normalized = new ArrayList<>(values.subList(0, i));
+			if (normalized != null) normalized.add(n);
+		}
+		return normalized == null ? key : normalized;
+	}
+
+	private static final class Cached {
+
+		private final Object	value;
+		private final long		expiresAt;
+
+		private Cached(Object value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+}
@@ -13,25 +13,51 @@
  */
 package org.bluemoondev.simplesql;
 
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Level;
 
 import org.bluemoondev.blutilities.debug.Log;
 import org.sqlite.jdbc4.JDBC4ResultSet;
 
+import org.bluemoondev.simplesql.columns.BlobColumn;
+import org.bluemoondev.simplesql.columns.BoolColumn;
+import org.bluemoondev.simplesql.columns.ColumnCodec;
+import org.bluemoondev.simplesql.columns.IntColumn;
+import org.bluemoondev.simplesql.columns.LongColumn;
 import org.bluemoondev.simplesql.columns.SQLColumn;
 import org.bluemoondev.simplesql.exceptions.SSQLException;
+import org.bluemoondev.simplesql.exceptions.UncheckedSSQLException;
+import org.bluemoondev.simplesql.metrics.Metrics;
+import org.bluemoondev.simplesql.metrics.OperationType;
 import org.bluemoondev.simplesql.utils.Checks;
 import org.bluemoondev.simplesql.utils.DataSet;
 import org.bluemoondev.simplesql.utils.Injector;
+import org.bluemoondev.simplesql.utils.QueryTemplates;
+import org.bluemoondev.simplesql.utils.QueryTemplates.Operation;
 import org.bluemoondev.simplesql.utils.TableManager;
 
 /**
@@ -48,18 +74,46 @@ public abstract class SQLTable {
 	private static final Log LOG = Log.get("SimpleSQL", SQLTable.class);
 
 	protected final String	tableName;
+	/** The primary key column, or null if there is none or it is composite */
 	protected String		primaryKey;
+	SQLColumn<?>			keyColumn;
+
+	/** Every primary key column, in the order they were added */
+	private String[]		keyNames	= new String[0];
+	private SQLColumn<?>[]	keyColumns	= new SQLColumn<?>[0];
 
 	protected Map<String, SQLColumn<?>> columns;
 
+	/** Columns that must be given a value whenever a row is inserted */
+	private final List<String> requiredColumns = new ArrayList<>();
+
+	/** Indexes over several columns, or unique ones */
+	private final List<Index> indexes = new ArrayList<>();
+
+	/** The cached SQL for every query shape this table has run */
+	protected final QueryTemplates queries;
+
+	volatile WriteBehind		writeBehind;
+	private volatile RowCache	cache;
+
+	/** Every column name, and the same names as a SELECT list */
+	private String[]	columnNames	= new String[0];
+	private String		columnList	= "";
+
+	/** The columns by ordinal, in the same order as columnNames */
+	private SQLColumn<?>[]	ordered		= new SQLColumn<?>[0];
+	/** The SELECT by primary key for each ordinal, built on first use */
+	private String[]		selectByKey	= new String[0];
+
 	/**
-	 * Constructs an instance of <code>SQLTable</code>
+	 * Constructs an instance of <code>SQLTable</code>. The columns are found
+	 * by reflecting over the static <code>SQLColumn</code> fields of the
+	 * subclass
 	 *
 	 * @param tableName The name of the table
 	 */
 	public SQLTable(String tableName) {
-		this.tableName = tableName;
-		columns = new HashMap<>();
+		this(tableName, new SQLColumn<?>[0]);
 		for (Field field : getClass().getDeclaredFields()) {
 			if (field.getType() == SQLColumn.class)
 				try {
@@ -69,6 +123,22 @@ public abstract class SQLTable {
 				}
 
 		}
+	}
+
+	/**
+	 * Constructs an instance of <code>SQLTable</code> with the given columns
+	 * and no reflection. Each column's ordinal is its position here, see
+	 * {@link #valueAt(Object, int)}. This is what the tables generated by the
+	 * SimpleSQL annotation processor use
+	 *
+	 * @param tableName The name of the table
+	 * @param columns   The columns of the table
+	 */
+	protected SQLTable(String tableName, SQLColumn<?>... columns) {
+		this.tableName = tableName;
+		this.columns = new HashMap<>();
+		queries = new QueryTemplates(tableName, this.columns);
+		for (SQLColumn<?> col : columns) { addColumn(col); }
 
 		TableManager.add(this);
 	}
@@ -80,14 +150,94 @@ public abstract class SQLTable {
 	 */
 	protected final void addColumn(SQLColumn<?> col) {
 		columns.put(col.name, col);
-		if (col.primary)
-			primaryKey = col.name;
+		int ordinal = Arrays.asList(columnNames).indexOf(col.name);
+		if (ordinal < 0) {
+			ordinal = columnNames.length;
+			columnNames = Arrays.copyOf(columnNames, ordinal + 1);
+			columnNames[ordinal] = col.name;
+			columnList = String.join(", ", columnNames);
+			ordered = Arrays.copyOf(ordered, ordinal + 1);
+			selectByKey = Arrays.copyOf(selectByKey, ordinal + 1);
+		}
+		ordered[ordinal] = col;
+		if (col.primary) {
+			int k = Arrays.asList(keyNames).indexOf(col.name);
+			if (k < 0) {
+				k = keyNames.length;
+				keyNames = Arrays.copyOf(keyNames, k + 1);
+				keyColumns = Arrays.copyOf(keyColumns, k + 1);
+			}
+			keyNames[k] = col.name;
+			keyColumns[k] = col;
+			// Single key paths only apply to a single key column
+			primaryKey = keyNames.length == 1 ? col.name : null;
+			keyColumn = keyNames.length == 1 ? col : null;
+		} else if (!col.isNullable() && col.defaultValue == null)
+			requiredColumns.add(col.name);
+	}
+
+	/**
+	 * Adds an index over one or more columns. A lookup by several DataSets can
+	 * only use an index that starts with the columns it matches on, so list
+	 * the columns that are always given first. The index is created with the
+	 * table, or when the table is next synced if it already exists
+	 *
+	 * @param  names                    The columns to index, in order
+	 * @throws IllegalArgumentException If a name is not a column of this table
+	 */
+	protected final void addIndex(String... names) {
+		indexes.add(new Index(index("idx", names), names, false));
+	}
+
+	/**
+	 * Adds a unique index over one or more columns, so no two rows can have
+	 * the same values in all of them. See {@link #addIndex(String...)}
+	 *
+	 * @param  names                    The columns to index, in order
+	 * @throws IllegalArgumentException If a name is not a column of this table
+	 */
+	protected final void addUniqueIndex(String... names) {
+		indexes.add(new Index(index("uq", names), names, true));
+	}
+
+	/**
+	 * @return The name of an index on these columns. MySQL allows 64
+	 *         characters and SQLite index names are shared by every table, so
+	 *         long names are cut short with a hash to stay unique
+	 */
+	private String index(String prefix, String... names) {
+		if (names == null || names.length == 0) throw new IllegalArgumentException("An index needs at least one column");
+		for (String name : names) {
+			if (!columns.containsKey(name)) throw new IllegalArgumentException(name + " is not a valid column name");
+		}
+		String index = prefix + "_" + tableName + "_" + String.join("_", names);
+		if (index.length() <= 64) return index;
+		return index.substring(0, 55) + "_" + Integer.toHexString(index.hashCode());
+	}
+
+	/**
+	 * An upsert inserts only the key and the column being set, and the
+	 * database checks NOT NULL constraints before it looks for a conflicting
+	 * row. So it can only be used when every other column may be left out
+	 *
+	 * @param  name The column being set
+	 * @return      True if an upsert of this column can not fail on a missing
+	 *              value
+	 */
+	boolean canUpsert(String name) {
+		for (String r : requiredColumns) { if (!r.equals(name)) return false; }
+		return true;
 	}
 
 	/**
 	 * Updates the specified column with the specified value. If the key does
 	 * not exist in the table, it will be inserted. Use this method when you
-	 * know the primary key.
+	 * know the primary key. This is done in a single upsert statement, so
+	 * concurrent calls for a new key can not insert it twice. Tables with NOT
+	 * NULL columns that have no default can't use an upsert, so for them the
+	 * row is updated and only inserted when the update matched nothing. If
+	 * {@link #enableWriteBehind(long, int) write-behind} is on, the write is
+	 * queued and this returns straight away
 	 *
 	 * @param  keyValue      The key value where the table will be updated
 	 * @param  name          The name of the column to update
@@ -97,20 +247,78 @@ public abstract class SQLTable {
 	public void update(Object keyValue, String name, Object newValue) throws SSQLException {
 		if (!Checks.isValidObject(keyValue)) throw new SSQLException("The keyValue is an invalid type");
 		if (!Checks.isValidObject(newValue)) throw new SSQLException("The newValue is an invalid type");
-		if (!exists(primaryKey, keyValue))
-			insert(keyValue);
-		String query = "UPDATE "	+ tableName + " SET " + columns.get(name).set() + " WHERE "
-						+ columns.get(primaryKey).set() + ";";
-		Injector injector = new Injector();
-		injector.put(1, newValue);
-		injector.put(2, keyValue);
-		write(query, injector);
+		if (primaryKey == null) throw new SSQLException(tableName + " does not have a primary key");
+		if (!columns.containsKey(name)) throw new SSQLException(name + " is not a valid column name");
+
+		WriteBehind wb = writeBehind;
+		if (wb != null && SimpleSQL.getDatabase().getTransaction() == null && readsBackAs(name, newValue)) {
+			wb.put(keyValue, name, newValue);
+			return;
+		}
+		updateDirect(keyValue, name, newValue);
+	}
+
+	/**
+	 * Writes an update by primary key now, in place of any value queued for
+	 * the same column by write-behind
+	 */
+	private void updateDirect(Object keyValue, String name, Object newValue) throws SSQLException {
+		WriteBehind wb = writeBehind;
+		if (wb == null) updateNow(keyValue, name, newValue);
+		else wb.writeThrough(keyValue, name, () -> updateNow(keyValue, name, newValue));
+	}
+
+	/**
+	 * Writes an update by primary key straight to the database
+	 */
+	void updateNow(Object keyValue, String name, Object newValue) throws SSQLException {
+		SQLColumn<?> col = columns.get(name);
+		int keys = keyNames.length;
+		Injector injector = new Injector(keys + 1);
+		if (col.primary) {
+			// Changing the key itself, there is nothing to insert
+			injector.put(1, col, newValue);
+			bindKey(injector, 1, keyValue);
+			write(queries.getFor(Operation.UPDATE, name, keyNames), injector);
+			if (keys == 1) {
+				cacheInvalidate(keyValue);
+				cacheInvalidate(newValue);
+			} else {
+				cacheClear();
+			}
+			return;
+		}
+
+		if (!canUpsert(name)) {
+			injector.put(1, col, newValue);
+			bindKey(injector, 1, keyValue);
+			if (write(queries.getFor(Operation.UPDATE, name, keyNames), injector) == 0)
+				insert(name, newValue, keyData(keyValue));
+		} else {
+			bindKey(injector, 0, keyValue);
+			injector.put(keys + 1, col, newValue);
+			write(queries.getFor(Operation.UPSERT, name, keyNames), injector);
+		}
+		if (readsBackAs(name, newValue)) cacheSet(keyValue, name, newValue);
+		else cacheInvalidate(keyValue);
+	}
+
+	/**
+	 * Values the column reads back as a different type, like a stream written
+	 * to a {@link BlobColumn}, can't be queued or cached in place of the stored
+	 * value
+	 */
+	private boolean readsBackAs(String name, Object value) {
+		return columns.get(name).getCodec().getType().isInstance(value);
 	}
 
 	/**
 	 * Updates the specified column with the specified value. Use this method
 	 * when you don't know the primary key but instead know what a few other
-	 * values are that would be unique to the row
+	 * values are that would be unique to the row. If no row matches, one is
+	 * inserted with these values. If the DataSet is just the primary key this
+	 * is a single upsert, otherwise the row is updated and only inserted when
+	 * the update matched nothing
 	 *
 	 * @param  name          The name of the column to update
 	 * @param  newValue      The new value for that column
@@ -124,65 +332,294 @@ public abstract class SQLTable {
 		if (!Checks.isValidObject(newValue)) throw new SSQLException("The newValue is an invalid type");
 		if (data == null) throw new SSQLException("The DataSet array cannot be null");
 		if (data.length == 0) throw new SSQLException("The DataSet array cannot be empty");
-		if (data.length == 1) {
+		if (data.length == 1 && data[0].name.equals(primaryKey)) {
 			update(data[0].value, name, newValue);
 			return;
 		}
+		Object key = keyOf(data, true);
+		if (key != null) {
+			// The whole composite key, which has its own single statement path
+			if (!columns.containsKey(name)) throw new SSQLException(name + " is not a valid column name");
+			updateDirect(key, name, newValue);
+			return;
+		}
+
+		flushPending();
+		String query = queries.get(Operation.UPDATE, name, data);
+
+		Injector injector = getInjector(1, data);
+		injector.put(1, columns.get(name), newValue);
+
+		if (write(query, injector) == 0)
+			insert(name, newValue, data);
+		cacheClear();
+	}
 
-		if (!exists(data))
-			insert(data);
+	private void insert(String name, Object value, DataSet... data) throws SSQLException {
+		for (int i = 0; i < data.length; i++) {
+			if (data[i].name.equals(name)) {
+				// The row is matched on the old value but has to end up with the new one
+				DataSet[] row = data.clone();
+				row[i] = new DataSet(name, value);
+				write(queries.get(Operation.INSERT, null, row), getInjector(0, row));
+				return;
+			}
+		}
 
-		StringBuilder sb = new StringBuilder("UPDATE ").append(tableName).append(" SET ")
-				.append(columns.get(name).set()).append(" WHERE ").append(columns.get(data[0].name).set());
+		DataSet[] row = Arrays.copyOf(data, data.length + 1);
+		row[data.length] = new DataSet(name, value);
+		write(queries.get(Operation.INSERT, null, row), getInjector(0, row));
+	}
 
-		for (int i = 1; i < data.length; i++) { sb.append(" AND ").append(columns.get(data[i].name).set()); }
+	/**
+	 * Turns on write-behind for this table. Updates by primary key
+	 * ({@link #update(Object, String, Object)} and
+	 * {@link #reset(Object, String)}) are then queued in memory and written by
+	 * a background thread in batched transactions, either every
+	 * <code>flushInterval</code> milliseconds or as soon as
+	 * <code>maxPending</code> writes are queued. Repeated updates to the same
+	 * key and column are coalesced so only the latest value is written.
+	 * <p>
+	 * Reads by primary key see queued values straight away. Any other query
+	 * on this table flushes the queue first, except inside a transaction.
+	 * Updates made inside a transaction are written directly, and a value
+	 * they replace in the queue is queued again if the transaction rolls
+	 * back. Queued writes
+	 * are flushed by {@link SimpleSQL#shutdown()} and when the JVM shuts down
+	 * normally, but are lost if the process is killed
+	 * </p>
+	 *
+	 * @param flushInterval How often pending writes are flushed, in
+	 *                      milliseconds
+	 * @param maxPending    How many pending writes trigger an early flush
+	 */
+	public synchronized void enableWriteBehind(long flushInterval, int maxPending) {
+		if (writeBehind != null) throw new IllegalStateException("Write-behind is already enabled for " + tableName);
+		if (flushInterval <= 0) throw new IllegalArgumentException("flushInterval must be positive");
+		if (maxPending < 1) throw new IllegalArgumentException("maxPending must be at least 1");
+		writeBehind = new WriteBehind(this, flushInterval, maxPending);
+		SimpleSQL.flushOnExit();
+	}
 
-		Injector injector = new Injector();
-		injector.put(1, newValue);
-		for (int i = 0; i < data.length; i++) { injector.put(i + 2, data[i].value); }
+	/**
+	 * Flushes any queued writes and turns write-behind off again
+	 *
+	 * @throws SSQLException If the final flush failed. Write-behind stays on
+	 */
+	public synchronized void disableWriteBehind() throws SSQLException {
+		if (writeBehind == null) return;
+		writeBehind.shutdown();
+		writeBehind = null;
+	}
 
-		sb.append(";");
+	/**
+	 * Writes every queued write-behind update now. Does nothing if
+	 * write-behind is off
+	 *
+	 * @throws SSQLException If the flush failed. The writes stay queued
+	 */
+	public void flush() throws SSQLException {
+		WriteBehind wb = writeBehind;
+		if (wb != null) wb.flush();
+	}
 
-		write(sb.toString(), injector);
+	/**
+	 * @return The number of write-behind updates waiting to be written
+	 */
+	public int getPendingWrites() {
+		WriteBehind wb = writeBehind;
+		return wb == null ? 0 : wb.size();
 	}
 
-	private void insert(Object keyValue) throws SSQLException {
-		if (!Checks.isValidObject(keyValue)) throw new SSQLException("The keyValue is an invalid type");
-		String query = "INSERT INTO " + tableName + " (" + primaryKey + ") VALUES (?);";
+	/**
+	 * Turns on the row cache for this table. Reads by primary key
+	 * ({@link #getValue(Object, String)} and the getInt/getString/... calls)
+	 * load the whole row once and answer later reads of any of its columns
+	 * from memory. Updates, resets and deletes by key update or drop the
+	 * cached row, and writes that match rows by other columns empty the
+	 * cache. For tables without a primary key,
+	 * {@link #getValue(String, DataSet...)} results are cached by column and
+	 * DataSets instead, and every write empties the cache.
+	 * <p>
+	 * Only writes made through this table are seen. If anything else writes
+	 * to the table, use a TTL or call {@link RowCache#clear()}
+	 * </p>
+	 *
+	 * @param maxEntries The most rows to keep. The least recently used row
+	 *                   is dropped when there is no room
+	 * @param ttl        How long a cached row stays valid in milliseconds, or
+	 *                   0 to keep it until it is dropped
+	 */
+	public synchronized void enableCache(int maxEntries, long ttl) {
+		if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be at least 1");
+		if (ttl < 0) throw new IllegalArgumentException("ttl cannot be negative");
+		cache = new RowCache(maxEntries, ttl);
+	}
 
-		Injector injector = new Injector();
-		injector.put(1, keyValue);
-		write(query, injector);
+	/**
+	 * Turns the row cache off and drops everything in it
+	 */
+	public synchronized void disableCache() {
+		cache = null;
 	}
 
-	private void insert(DataSet... data) throws SSQLException {
-		StringBuilder sb = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
+	/**
+	 * @return The row cache, which holds the hit and miss counts, or null if
+	 *         the cache is off
+	 */
+	public RowCache getCache() { return cache; }
+
+	/**
+	 * Brings a cached row up to date after one of its columns was written. In
+	 * a transaction the row is dropped instead, both now and once the
+	 * transaction ends, since the write may still be rolled back
+	 */
+	void cacheSet(Object keyValue, String name, Object value) throws SSQLException {
+		RowCache c = cache;
+		if (c == null) return;
+		if (keyNames.length == 0) {
+			cacheClear();
+			return;
+		}
+		Transaction tx = SimpleSQL.getDatabase().getTransaction();
+		if (tx == null) {
+			c.set(keyValue, name, value);
+		} else {
+			c.invalidate(keyValue);
+			tx.onFinish(() -> c.invalidate(keyValue));
+		}
+	}
 
-		for (int k = 0; k < data.length - 1; k++) {
-			if (!columns.containsKey(data[k].name))
-				throw new SSQLException(data[k].name + " is not a valid column name");
-			sb.append(data[k].name).append(", ");
+	/**
+	 * Drops the cached row for a key that was inserted or deleted
+	 */
+	void cacheInvalidate(Object keyValue) throws SSQLException {
+		RowCache c = cache;
+		if (c == null) return;
+		if (keyNames.length == 0) {
+			cacheClear();
+			return;
 		}
+		c.invalidate(keyValue);
+		Transaction tx = SimpleSQL.getDatabase().getTransaction();
+		if (tx != null) tx.onFinish(() -> c.invalidate(keyValue));
+	}
+
+	/**
+	 * Empties the cache after a write whose rows aren't known
+	 */
+	void cacheClear() throws SSQLException {
+		RowCache c = cache;
+		if (c == null) return;
+		c.clear();
+		Transaction tx = SimpleSQL.getDatabase().getTransaction();
+		if (tx != null) tx.onFinish(c::clear);
+	}
 
-		sb.append(data[data.length - 1].name).append(")");
+	/**
+	 * Makes queued writes visible to a query that can't look them up by key
+	 */
+	void flushPending() throws SSQLException {
+		WriteBehind wb = writeBehind;
+		if (wb != null && wb.size() > 0 && SimpleSQL.getDatabase().getTransaction() == null)
+			wb.flush();
+	}
 
-		sb.append(" VALUES (");
+	/**
+	 * Starts a batch of inserts, updates and deletes on this table that are
+	 * sent to the database together when
+	 * {@link org.bluemoondev.simplesql.Batch#execute() execute()} is called
+	 *
+	 * @return A new, empty batch
+	 */
+	public Batch batch() {
+		return new Batch(this, false);
+	}
 
-		for (int k = 0; k < data.length - 1; k++) { sb.append("?, "); }
+	/**
+	 * Starts a query on this table for filters, sorting and paging that the
+	 * DataSet methods can't express. See {@link org.bluemoondev.simplesql.Query
+	 * Query}
+	 *
+	 * @return A new query matching every row
+	 */
+	public Query query() {
+		return new Query(this);
+	}
 
-		sb.append("?);");
+	/**
+	 * Reads one page of rows sorted by a column, smallest first. See
+	 * {@link Query#page(String, boolean, int, String, String...)}
+	 *
+	 * @param  sortColumn    The column to sort by, which must be the primary key
+	 *                       or indexed
+	 * @param  pageSize      The most rows on a page
+	 * @param  token         The {@link Page#getNextToken() token} of the page
+	 *                       before, or null for the first page
+	 * @param  names         The columns to read, or none to read every column
+	 * @return               The page
+	 * @throws SSQLException If the sort column can't be paged by, the token is
+	 *                       invalid or the query failed
+	 */
+	public Page page(String sortColumn, int pageSize, String token, String... names) throws SSQLException {
+		return query().page(sortColumn, false, pageSize, token, names);
+	}
 
-		Injector injector = new Injector();
+	/**
+	 * Reads one page of rows sorted by a column. See
+	 * {@link Query#page(String, boolean, int, String, String...)}
+	 *
+	 * @param  sortColumn    The column to sort by, which must be the primary key
+	 *                       or indexed
+	 * @param  descending    True to sort largest first
+	 * @param  pageSize      The most rows on a page
+	 * @param  token         The {@link Page#getNextToken() token} of the page
+	 *                       before, or null for the first page
+	 * @param  names         The columns to read, or none to read every column
+	 * @return               The page
+	 * @throws SSQLException If the sort column can't be paged by, the token is
+	 *                       invalid or the query failed
+	 */
+	public Page page(String sortColumn, boolean descending, int pageSize, String token, String... names)
+			throws SSQLException {
+		return query().page(sortColumn, descending, pageSize, token, names);
+	}
 
-		for (int k = 0; k < data.length; k++) {
-			Object o = data[k].value;
-			injector.put(k + 1, o);
+	/**
+	 * @return The columns pages sorted by this column are ordered by: the
+	 *         column itself, then the primary key if its values aren't unique
+	 * @throws SSQLException If no index starts with the column, since every
+	 *                       page would then scan the table
+	 */
+	SQLColumn<?>[] seekColumns(String sortColumn) throws SSQLException {
+		SQLColumn<?> col = columns.get(sortColumn);
+		if (col == null) throw new SSQLException(sortColumn + " is not a valid column name");
+		boolean indexed = col.isIndexed() || (keyNames.length > 0 && keyNames[0].equals(sortColumn));
+		boolean unique = keyNames.length == 1 && col.primary;
+		for (Index index : indexes) {
+			if (!index.columns[0].equals(sortColumn)) continue;
+			indexed = true;
+			if (index.unique && index.columns.length == 1) unique = true;
+		}
+		if (!indexed) throw new SSQLException("Can't page by " + sortColumn + ", it is neither the primary key nor indexed");
+		if (!unique && keyNames.length == 0)
+			throw new SSQLException("Can't page by " + sortColumn + ", " + tableName + " has no primary key to order ties by");
+
+		List<SQLColumn<?>> seek = new ArrayList<>();
+		seek.add(col);
+		for (SQLColumn<?> key : keyColumns) {
+			if (!unique && key != col) seek.add(key);
 		}
-		write(sb.toString(), injector);
+		for (SQLColumn<?> c : seek) {
+			if (!Page.isTokenType(c.getTypeClass()))
+				throw new SSQLException("Can't page by " + sortColumn + ", " + c.name + " can't be written into a page token");
+		}
+		return seek.toArray(new SQLColumn<?>[0]);
 	}
 
 	/**
-	 * Creates the table.You will not need to use this. Tables are created by
+	 * Creates the table, or adds the columns it is missing if it already
+	 * exists. You will not need to use this. Tables are created by
 	 * the <code>TableManager</code> when
 	 * {@link org.bluemoondev.simplesql.SimpleSQL#init(org.bluemoondev.simplesql.Database)
 	 * SimpleSQL.init(database)}
@@ -193,79 +630,146 @@ public abstract class SQLTable {
 	 * @throws SSQLException
 	 */
 	public void create() throws SQLException, SSQLException {
+		Database db = SimpleSQL.getDatabase();
+		Metrics metrics = SimpleSQL.getMetrics();
+		long start = metrics.start();
+		boolean failed = true;
+		try {
+			sync(db);
+			failed = false;
+		} finally {
+			metrics.record(tableName, OperationType.DDL, "schema sync", start, 0, failed);
+		}
+	}
 
-		StringBuilder sb = new StringBuilder();
-
-		if (SimpleSQL.getDatabase().getConnection().getMetaData()
-				.getTables(SimpleSQL.getDatabase().name, null, tableName, null).next()) {
-			boolean alteration = false;
-			for (Map.Entry<String, SQLColumn<?>> e : columns.entrySet()) {
-				String s = e.getKey();
-				SQLColumn<?> c = e.getValue();
-
-				if (!SimpleSQL.getDatabase().getConnection().getMetaData().getColumns(null, null, tableName, s)
-						.next()) {
-					sb.append("ALTER TABLE ").append(tableName).append(" ADD ").append(s).append(" ").append(c
-							.getDescriptor());
-					LOG.info("Altering table -> " + sb.toString());
-					writeNew(sb.toString());
-					sb = new StringBuilder();
-					alteration = true;
+	private void sync(Database db) throws SQLException {
+		try (Connection conn = db.getConnection()) {
+			Set<String> existing = existingColumns(conn.getMetaData(), db.name);
+			if (existing == null) {
+				String sql = createStatement(db);
+				LOG.info("Creating table -> " + sql);
+				try (Statement st = conn.createStatement()) {
+					st.execute(sql);
 				}
+			} else {
+				List<String> missing = new ArrayList<>();
+				for (String name : columnNames) {
+					if (!existing.contains(name.toLowerCase(Locale.ROOT))) missing.add(name);
+				}
+				if (!missing.isEmpty()) alter(conn, db, missing);
 			}
-
-			if (alteration)
-				return;
-		}
-
-		sb.append("CREATE TABLE IF NOT EXISTS ").append(tableName).append(" (");
-
-		if (primaryKey == null)
-			if (SimpleSQL.getDatabase() instanceof SQLite)
-				sb.append("auto_id INTEGER PRIMARY KEY AUTOINCREMENT,");
-			else
-				sb.append("auto_id INTEGER PRIMARY KEY AUTO_INCREMENT,");
-
-		int i = 1;
-		for (Map.Entry<String, SQLColumn<?>> e : columns.entrySet()) {
-			if (i == columns.size())
-				sb.append(e.getValue().name).append(" ").append(e.getValue().getDescriptor()).append(");");
-			else
-				sb.append(e.getValue().name).append(" ").append(e.getValue().getDescriptor()).append(", ");
-			i++;
 		}
-
-		LOG.info("Creating table -> " + sb.toString());
-		writeNew(sb.toString());
-	}
-
-	private String select(SQLColumn<?> column, String... wheres) {
-		StringBuilder sb = new StringBuilder();
-		sb.append(wheres[0]);
-		for (int i = 1; i < wheres.length; i++) { sb.append(" AND ").append(wheres[i]); }
-
-		return select(sb.toString(), column.name);
+		createIndexes(db);
 	}
 
-	private String selectAllFor(String col) {
-		return select(null, col);
+	/**
+	 * Creates the declared indexes the table doesn't have yet, found by name.
+	 * MySQL adds them all in one ALTER TABLE, SQLite in one batch
+	 */
+	private void createIndexes(Database db) throws SQLException {
+		List<Index> wanted = new ArrayList<>(indexes);
+		for (SQLColumn<?> col : ordered) {
+			if (col.isIndexed() && !col.primary) wanted.add(new Index(index("idx", col.name), new String[] { col.name }, false));
+		}
+		if (wanted.isEmpty()) return;
+
+		try (Connection conn = db.getConnection()) {
+			Set<String> present = new HashSet<>();
+			try (ResultSet rs = conn.getMetaData().getIndexInfo(db.name, null, tableName, false, true)) {
+				while (rs.next()) {
+					String name = rs.getString("INDEX_NAME");
+					if (name != null) present.add(name.toLowerCase(Locale.ROOT));
+				}
+			}
+			wanted.removeIf(index -> present.contains(index.name.toLowerCase(Locale.ROOT)));
+			if (wanted.isEmpty()) return;
+
+			try (Statement st = conn.createStatement()) {
+				if (db instanceof SQLite) {
+					for (Index index : wanted) {
+						String sql = "CREATE " + (index.unique ? "UNIQUE " : "") + "INDEX IF NOT EXISTS " + index.name
+								+ " ON " + tableName + " (" + String.join(", ", index.columns) + ")";
+						LOG.info("Creating index -> " + sql);
+						st.addBatch(sql);
+					}
+					st.executeBatch();
+				} else {
+					StringBuilder sb = new StringBuilder("ALTER TABLE ").append(tableName);
+					for (int i = 0; i < wanted.size(); i++) {
+						Index index = wanted.get(i);
+						sb.append(i == 0 ? " ADD " : ", ADD ").append(index.unique ? "UNIQUE INDEX " : "INDEX ")
+								.append(index.name).append(" (").append(String.join(", ", index.columns)).append(")");
+					}
+					LOG.info("Creating indexes -> " + sb);
+					st.execute(sb.append(';').toString());
+				}
+			}
+		}
 	}
 
-	private String selectAll(String... wheres) {
-		StringBuilder sb = new StringBuilder(wheres[0]);
-		for (int i = 1; i < wheres.length; i++) { sb.append(" AND ").append(wheres[i]); }
-
-		return select(sb.toString(), "*");
+	/**
+	 * Reads every column of this table with one metadata query
+	 *
+	 * @return The lower case column names, or null if the table does not
+	 *         exist yet
+	 */
+	private Set<String> existingColumns(DatabaseMetaData meta, String catalog) throws SQLException {
+		try (ResultSet tables = meta.getTables(catalog, null, tableName, null)) {
+			if (!tables.next()) return null;
+		}
+		Set<String> existing = new HashSet<>();
+		try (ResultSet rs = meta.getColumns(catalog, null, tableName, null)) {
+			while (rs.next()) { existing.add(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT)); }
+		}
+		return existing;
 	}
 
-	private String selectAll() {
-		return select(null, "*");
+	private String createStatement(Database db) {
+		StringBuilder sb = new StringBuilder("CREATE TABLE IF NOT EXISTS ").append(tableName).append(" (");
+		if (keyNames.length == 0)
+			if (db instanceof SQLite)
+				sb.append("auto_id INTEGER PRIMARY KEY AUTOINCREMENT, ");
+			else
+				sb.append("auto_id INTEGER PRIMARY KEY AUTO_INCREMENT, ");
+
+		boolean composite = keyNames.length > 1;
+		for (int i = 0; i < columnNames.length; i++) {
+			if (i > 0) sb.append(", ");
+			SQLColumn<?> col = columns.get(columnNames[i]);
+			sb.append(columnNames[i]).append(" ");
+			if (composite && col.primary)
+				sb.append(col.getDescriptor(false)).append(col.isNullable() ? " NOT NULL" : "");
+			else
+				sb.append(col.getDescriptor());
+		}
+		if (composite) sb.append(", PRIMARY KEY (").append(String.join(", ", keyNames)).append(")");
+		return sb.append(");").toString();
 	}
 
-	private String select(String where, String columns) {
-		return "SELECT "	+ columns + " FROM " + tableName + (where == null	? ""
-																				: " WHERE " + where)
-				+ ";";
+	/**
+	 * Adds the missing columns. MySQL adds them all in one ALTER TABLE, which
+	 * rebuilds the table once instead of once per column. SQLite can only add
+	 * one column per ALTER TABLE, so those are sent as one batch
+	 */
+	private void alter(Connection conn, Database db, List<String> missing) throws SQLException {
+		try (Statement st = conn.createStatement()) {
+			if (db instanceof SQLite) {
+				for (String name : missing) {
+					String sql = "ALTER TABLE " + tableName + " ADD " + name + " " + columns.get(name).getDescriptor();
+					LOG.info("Altering table -> " + sql);
+					st.addBatch(sql);
+				}
+				st.executeBatch();
+			} else {
+				StringBuilder sb = new StringBuilder("ALTER TABLE ").append(tableName);
+				for (int i = 0; i < missing.size(); i++) {
+					sb.append(i == 0 ? " ADD " : ", ADD ").append(missing.get(i)).append(" ")
+							.append(columns.get(missing.get(i)).getDescriptor());
+				}
+				LOG.info("Altering table -> " + sb);
+				st.execute(sb.append(';').toString());
+			}
+		}
 	}
 
 	/**
@@ -279,10 +783,11 @@ public abstract class SQLTable {
 	 */
 	public boolean exists(String key, Object value) throws SSQLException {
 		if (!Checks.isValidObject(value)) throw new SSQLException("The value is an invalid type");
-		String query = selectAll(columns.get(key).set());
-		Injector injector = new Injector();
-		injector.put(1, value);
-		return read(query, injector, results -> {
+		flushPending();
+		String query = queries.getFor(Operation.EXISTS, null, key);
+		Injector injector = new Injector(1);
+		injector.put(1, columns.get(key), value);
+		return read(OperationType.EXISTS, query, injector, results -> {
 			return results.next();
 		});
 	}
@@ -300,18 +805,138 @@ public abstract class SQLTable {
 		if (data == null) throw new SSQLException("The DataSet array must not be null");
 		if (data.length == 0) throw new SSQLException("The DataSet array must not be empty");
 		if (data.length == 1) return exists(data[0].name, data[0].value);
+		Object key = keyOf(data, true);
+		RowCache c = cache;
+		if (key != null && c != null && SimpleSQL.getDatabase().getTransaction() == null) {
+			// A whole composite key, which a cached row can answer
+			Object row = c.get(key);
+			if (row != RowCache.MISSING) return row != null;
+		}
+		flushPending();
+
+		String query = queries.get(Operation.EXISTS, null, data);
+		return read(OperationType.EXISTS, query, getInjector(0, data), results -> {
+			return results.next();
+		});
+	}
+
+	/**
+	 * Counts the rows matching the given values in the database, without
+	 * reading them
+	 *
+	 * @param  where         The key-value pairs to match, or none to count every
+	 *                       row
+	 * @return               The number of matching rows
+	 * @throws SSQLException If a name is not a column of this table or the
+	 *                       query failed
+	 */
+	public long count(DataSet... where) throws SSQLException {
+		flushPending();
+		String query = queries.get(Operation.COUNT, null, where);
+		return read(query, getInjector(0, where), results -> results.next() ? results.getLong(1) : 0L);
+	}
 
-		String[] wheres = new String[data.length];
+	/**
+	 * Adds up a numeric column over the rows matching the given values in the
+	 * database. The sum of an <code>IntColumn</code> or <code>LongColumn</code>
+	 * is a Long, of a <code>DoubleColumn</code> a Double and of a
+	 * <code>DecimalColumn</code> a BigDecimal
+	 *
+	 * @param  <T>           The type of the sum
+	 * @param  name          The name of the column
+	 * @param  where         The key-value pairs to match, or none to add up
+	 *                       every row
+	 * @return               The sum, which is zero if nothing matches
+	 * @throws SSQLException If the column is not numeric or the query failed
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Number> T sum(String name, DataSet... where) throws SSQLException {
+		SQLColumn<?> col = numeric(name);
+		flushPending();
+		return (T) readSum(col, queries.get(Operation.SUM, name, where), getInjector(0, where));
+	}
 
-		Injector injector = new Injector();
+	/**
+	 * Finds the smallest value of a column over the rows matching the given
+	 * values in the database
+	 *
+	 * @param  <T>           The type of the column
+	 * @param  name          The name of the column
+	 * @param  where         The key-value pairs to match, or none to look at
+	 *                       every row
+	 * @return               The smallest value, or null if nothing matches
+	 * @throws SSQLException If a name is not a column of this table or the
+	 *                       query failed
+	 */
+	public <T> T min(String name, DataSet... where) throws SSQLException {
+		flushPending();
+		return readValue(columns.get(name), queries.get(Operation.MIN, name, where), getInjector(0, where));
+	}
 
-		for (int i = 0; i < wheres.length; i++) {
-			wheres[i] = columns.get(data[i].name).set();
-			injector.put(i + 1, data[i].value);
-		}
-		String query = selectAll(wheres);
+	/**
+	 * Finds the largest value of a column over the rows matching the given
+	 * values in the database
+	 *
+	 * @param  <T>           The type of the column
+	 * @param  name          The name of the column
+	 * @param  where         The key-value pairs to match, or none to look at
+	 *                       every row
+	 * @return               The largest value, or null if nothing matches
+	 * @throws SSQLException If a name is not a column of this table or the
+	 *                       query failed
+	 */
+	public <T> T max(String name, DataSet... where) throws SSQLException {
+		flushPending();
+		return readValue(columns.get(name), queries.get(Operation.MAX, name, where), getInjector(0, where));
+	}
+
+	/**
+	 * Averages a numeric column over the rows matching the given values in the
+	 * database
+	 *
+	 * @param  name          The name of the column
+	 * @param  where         The key-value pairs to match, or none to average
+	 *                       every row
+	 * @return               The average, or null if nothing matches
+	 * @throws SSQLException If the column is not numeric or the query failed
+	 */
+	public Double avg(String name, DataSet... where) throws SSQLException {
+		numeric(name);
+		flushPending();
+		return readAvg(queries.get(Operation.AVG, name, where), getInjector(0, where));
+	}
+
+	/**
+	 * @return The column, if it holds numbers that can be added up
+	 */
+	SQLColumn<?> numeric(String name) throws SSQLException {
+		SQLColumn<?> col = columns.get(name);
+		if (col == null) throw new SSQLException(name + " is not a valid column name");
+		Class<?> type = col.getTypeClass();
+		if (type != Integer.class && type != Long.class && type != Double.class && type != BigDecimal.class)
+			throw new SSQLException(name + " is not a numeric column");
+		return col;
+	}
+
+	Number readSum(SQLColumn<?> col, String query, Injector injector) throws SSQLException {
+		Class<?> type = col.getTypeClass();
 		return read(query, injector, results -> {
-			return results.next();
+			results.next();
+			// SUM is null when nothing matches, which the getters read as zero
+			if (type == Double.class) return results.getDouble(1);
+			if (type == BigDecimal.class) {
+				BigDecimal sum = results.getBigDecimal(1);
+				return sum == null ? BigDecimal.ZERO : sum;
+			}
+			return results.getLong(1);
+		});
+	}
+
+	Double readAvg(String query, Injector injector) throws SSQLException {
+		return read(query, injector, results -> {
+			results.next();
+			double avg = results.getDouble(1);
+			return results.wasNull() ? null : avg;
 		});
 	}
 
@@ -345,10 +970,18 @@ public abstract class SQLTable {
 	 */
 	public void delete(Object key) throws SSQLException {
 		if (!Checks.isValidObject(key)) throw new SSQLException("The key is an invalid type");
-		String query = "DELETE FROM " + tableName + " WHERE " + columns.get(primaryKey).set() + ";";
-		Injector injector = new Injector();
-		injector.put(1, key);
-		write(query, injector);
+		if (primaryKey == null) throw new SSQLException(tableName + " does not have a primary key");
+		deleteByKey(key);
+	}
+
+	private void deleteByKey(Object key) throws SSQLException {
+		String query = queries.getFor(Operation.DELETE, null, keyNames);
+		Injector injector = keyInjector(key);
+
+		WriteBehind wb = writeBehind;
+		if (wb == null) write(query, injector);
+		else wb.writeThrough(key, null, () -> write(query, injector));
+		cacheInvalidate(key);
 	}
 
 	/**
@@ -358,23 +991,19 @@ public abstract class SQLTable {
 	 * @throws SSQLException
 	 */
 	public void delete(DataSet... data) throws SSQLException {
-		if (data.length == 1) {
+		if (data.length == 1 && data[0].name.equals(primaryKey)) {
 			delete(data[0].value);
 			return;
 		}
-		StringBuilder sb = new StringBuilder("DELETE FROM ").append(tableName).append(" WHERE ")
-				.append(columns.get(data[0].name).set());
-
-		Injector injector = new Injector();
-
-		injector.put(1, data[0].value);
-		for (int i = 1; i < data.length; i++) {
-			sb.append(" AND ").append(columns.get(data[i].name).set());
-			injector.put(i + 1, data[i].value);
+		Object key = keyOf(data, true);
+		if (key != null) {
+			deleteByKey(key);
+			return;
 		}
-		sb.append((";"));
-
-		write(sb.toString(), injector);
+		flushPending();
+		String query = queries.get(Operation.DELETE, null, data);
+		write(query, getInjector(0, data));
+		cacheClear();
 
 	}
 
@@ -386,35 +1015,58 @@ public abstract class SQLTable {
 	 * @param  name          The name of the column to retrieve
 	 *                       data from
 	 * @param  dataSets      An array of the key-value pairs to use as locators
-	 * @return               The T stored at this location
+	 * @return               The T stored at this location, or null if no row
+	 *                       matches
 	 * @throws SSQLException If no
 	 *                       {@link org.bluemoondev.simplesql.columns.SQLColumn
 	 *                       SQLColumn} has
 	 *                       been created with that name, or if the dataSets array
 	 *                       is null or empty
 	 */
+	@SuppressWarnings("unchecked")
 	public <T> T getValue(String name, DataSet... dataSets) throws SSQLException {
-		if (!checks(name, dataSets)) return null;
-		if (dataSets.length == 1) return getValue(dataSets[0].value, name);
-		String strs[] = new String[dataSets.length];
-
-		Injector injector = getInjector((i, s) -> {
-			strs[i] = s;
-		}, dataSets);
+		checks(name, dataSets);
+		Object keyValue = keyOf(dataSets, true);
+		if (keyValue != null) return getValue(keyValue, name);
+		flushPending();
+		String query = queries.get(Operation.SELECT, name, dataSets);
+		Injector injector = getInjector(0, dataSets);
+
+		// Tables without a primary key cache each value by how it was looked up
+		RowCache c = keyNames.length == 0 ? cache : null;
+		Object key = null;
+		long generation = 0;
+		if (c != null && SimpleSQL.getDatabase().getTransaction() == null) {
+			key = RowCache.tupleKey(name, dataSets);
+			Object cached = c.get(key);
+			if (cached != RowCache.MISSING) return (T) cached;
+			generation = c.generation();
+		}
 
-		String query = select(columns.get(name), strs);
+		ColumnCodec<?> codec = columns.get(name).getCodec();
+		T value = (T) read(query, injector, results -> results.next() ? codec.read(results, 1) : null);
+		if (key != null) c.put(key, value, generation);
+		return value;
+	}
 
-		Class<?> clazz = columns.get(name).getTypeClass();
-		return (T) read(query, injector, results -> {
-			if (results.next()) {
-				try {
-					return results.getObject(name, clazz);
-				} catch (SQLFeatureNotSupportedException ex) {
-					return getValueFallback(clazz, results, name);
-				}
-			}
-			return null;
-		});
+	/**
+	 * Retrieves the value from the specified column where the list of keys and
+	 * values can be found. Unlike {@link #getValue(String, DataSet...)} this
+	 * makes it clear when nothing was found
+	 *
+	 * @param  <T>           The type of value to return
+	 * @param  name          The name of the column to retrieve data from
+	 * @param  dataSets      An array of the key-value pairs to use as locators
+	 * @return               The value stored at this location, or an empty
+	 *                       Optional if no row matches or the value is null
+	 * @throws SSQLException If no
+	 *                       {@link org.bluemoondev.simplesql.columns.SQLColumn
+	 *                       SQLColumn} has
+	 *                       been created with that name, or if the dataSets array
+	 *                       is null or empty
+	 */
+	public <T> Optional<T> findValue(String name, DataSet... dataSets) throws SSQLException {
+		return Optional.ofNullable(getValue(name, dataSets));
 	}
 
 	/**
@@ -501,40 +1153,118 @@ public abstract class SQLTable {
 	 * @return               The long value at this location
 	 * @throws SSQLException
 	 */
+	@SuppressWarnings("unchecked")
 	public <T> T getValue(Object keyValue, String name) throws SSQLException {
-		String query = select(columns.get(primaryKey).set(), name);
-		Injector injector = new Injector();
-		injector.put(1, keyValue);
-		Class<?> clazz = columns.get(name).getTypeClass();
-//		System.out.println(clazz);
-		return (T) read(query, injector, results -> {
-//			System.out.println(results != null);
-			if (results.next()) {
-				try {
-				return results.getObject(name, clazz);
-				}catch(SQLFeatureNotSupportedException ex) {
-					return getValueFallback(clazz, results, name);
-				}
+		checkKey(keyValue);
+		WriteBehind wb = writeBehind;
+		if (wb != null) {
+			Object pending = wb.get(keyValue, name);
+			if (pending != WriteBehind.MISSING) return (T) pending;
+		}
+
+		RowCache c = cache;
+		if (c != null) {
+			if (!columns.containsKey(name)) throw new SSQLException(name + " is not a valid column name");
+			Object row = c.get(keyValue);
+			if (row == RowCache.MISSING) {
+				// A transaction may read its own uncommitted writes, which must
+				// not end up in the cache
+				if (SimpleSQL.getDatabase().getTransaction() != null) return readValue(keyValue, name);
+				long generation = c.generation();
+				row = readRow(keyValue);
+				c.put(keyValue, row, generation);
 			}
-			return null;
-		});
+			return row == null ? null : ((Row) row).get(name);
+		}
+		return readValue(keyValue, name);
+	}
+
+	private Row readRow(Object keyValue) throws SSQLException {
+		String query = queries.getFor(Operation.ROW, columnList, keyNames);
+		List<Row> rows = readRows(columnNames, query, keyInjector(keyValue), true);
+		return rows.isEmpty() ? null : rows.get(0);
+	}
+
+	private <T> T readValue(Object keyValue, String name) throws SSQLException {
+		return readValue(keyValue, columns.get(name), queries.getFor(Operation.SELECT, name, keyNames));
+	}
+
+	private <T> T readValue(Object keyValue, SQLColumn<?> col, String query) throws SSQLException {
+		return readValue(col, query, keyInjector(keyValue));
+	}
+
+	@SuppressWarnings("unchecked")
+	<T> T readValue(SQLColumn<?> col, String query, Injector injector) throws SSQLException {
+		ColumnCodec<?> codec = col.getCodec();
+		return (T) read(query, injector, results -> results.next() ? codec.read(results, 1) : null);
 	}
 
 	/**
-	 * Retrieves the value from the specified column at the row where the
-	 * primary key value can be found
+	 * Retrieves a value by the column's ordinal instead of its name, which is
+	 * its position in the order the columns were added. Without write-behind
+	 * or a cache this goes straight to an array of prepared SQL, with no
+	 * lookups by name
 	 *
+	 * @param  <T>           The type of the column
 	 * @param  keyValue      The primary key value of the row to look for
-	 * @param  name          The name of the column to get data from
-	 * @return               The long value at this location
-	 * @throws SSQLException
+	 * @param  column        The ordinal of the column
+	 * @return               The value, or null if no row has this key
+	 * @throws SSQLException If there is no such column or the query failed
 	 */
-	public long getLong(Object keyValue, String name) throws SSQLException {
-		return getValue(keyValue, name);
+	public <T> T valueAt(Object keyValue, int column) throws SSQLException {
+		if (column < 0 || column >= ordered.length) throw new SSQLException(tableName + " has no column " + column);
+		if (writeBehind != null || cache != null) return getValue(keyValue, columnNames[column]);
+		if (primaryKey == null) throw new SSQLException(tableName + " does not have a primary key");
+
+		String query = selectByKey[column];
+		if (query == null) selectByKey[column] = query = queries.getFor(Operation.SELECT, columnNames[column], primaryKey);
+		return readValue(keyValue, ordered[column], query);
 	}
 
 	/**
-	 * Retrieves the value from the specified column at the row where the
+	 * Updates a value by the column's ordinal instead of its name. See
+	 * {@link #update(Object, String, Object)} and {@link #valueAt(Object, int)}
+	 *
+	 * @param  keyValue      The primary key value of the row
+	 * @param  column        The ordinal of the column
+	 * @param  newValue      The new value for that column
+	 * @throws SSQLException If there is no such column or the update failed
+	 */
+	public void updateAt(Object keyValue, int column, Object newValue) throws SSQLException {
+		if (column < 0 || column >= ordered.length) throw new SSQLException(tableName + " has no column " + column);
+		update(keyValue, columnNames[column], newValue);
+	}
+
+	/**
+	 * Retrieves the value from the specified column at the row where the
+	 * primary key value can be found
+	 * 
+	 * @param  <T>           The type to return, must be supported by SQL
+	 * @param  keyValue      The primary key value of the row to look for
+	 * @param  name          The name of the column to get data from
+	 * @return               The value at this location, or an empty Optional
+	 *                       if no row has this key or the value is null
+	 * @throws SSQLException
+	 */
+	public <T> Optional<T> findValue(Object keyValue, String name) throws SSQLException {
+		return Optional.ofNullable(getValue(keyValue, name));
+	}
+
+	/**
+	 * Retrieves the value from the specified column at the row where the
+	 * primary key value can be found
+	 *
+	 * @param  keyValue      The primary key value of the row to look for
+	 * @param  name          The name of the column to get data from
+	 * @return               The long value at this location
+	 * @throws SSQLException
+	 */
+	public long getLong(Object keyValue, String name) throws SSQLException {
+		return getValue(keyValue, name);
+	}
+
+	/**
+	 * Retrieves the value from the specified column at the row where the
 	 * primary key value can be found
 	 *
 	 * @param  keyValue      The primary key value of the row to look for
@@ -573,7 +1303,495 @@ public abstract class SQLTable {
 	}
 
 	/**
-	 * Retrieves a list of all values at every row for the specified column
+	 * Reads an {@link IntColumn} at the row with the given numeric primary key.
+	 * The key is bound and the value read as primitives, so nothing is boxed
+	 * unless the row cache or write-behind is on. Unlike
+	 * {@link #getInt(Object, String)} the table must have a single IntColumn
+	 * or LongColumn primary key, and null reads as 0
+	 *
+	 * @param  keyValue      The primary key value of the row to look for
+	 * @param  name          The name of the column to get data from
+	 * @return               The int value at this location, or 0 if it is null
+	 * @throws SSQLException If no row has this key, the primary key is not
+	 *                       numeric or the column is not an IntColumn
+	 */
+	public int readInt(long keyValue, String name) throws SSQLException {
+		return (int) readPrimitive(keyValue, typed(name, IntColumn.class));
+	}
+
+	/**
+	 * Reads a {@link LongColumn} at the row with the given numeric primary key.
+	 * See {@link #readInt(long, String)}
+	 *
+	 * @param  keyValue      The primary key value of the row to look for
+	 * @param  name          The name of the column to get data from
+	 * @return               The long value at this location, or 0 if it is null
+	 * @throws SSQLException If no row has this key, the primary key is not
+	 *                       numeric or the column is not a LongColumn
+	 */
+	public long readLong(long keyValue, String name) throws SSQLException {
+		return readPrimitive(keyValue, typed(name, LongColumn.class));
+	}
+
+	/**
+	 * Reads a {@link BoolColumn} at the row with the given numeric primary key.
+	 * See {@link #readInt(long, String)}
+	 *
+	 * @param  keyValue      The primary key value of the row to look for
+	 * @param  name          The name of the column to get data from
+	 * @return               The boolean value at this location, or false if it
+	 *                       is null
+	 * @throws SSQLException If no row has this key, the primary key is not
+	 *                       numeric or the column is not a BoolColumn
+	 */
+	public boolean readBool(long keyValue, String name) throws SSQLException {
+		return readPrimitive(keyValue, typed(name, BoolColumn.class)) != 0;
+	}
+
+	private long readPrimitive(long keyValue, SQLColumn<?> col) throws SSQLException {
+		if (!(keyColumn instanceof IntColumn || keyColumn instanceof LongColumn))
+			throw new SSQLException(tableName + " does not have a single IntColumn or LongColumn primary key");
+		if (writeBehind != null || cache != null) {
+			// Those hold boxed values already, unboxing them costs nothing
+			Row row = getRow(keyValue, col.name);
+			if (row == null) throw new SSQLException("No row in " + tableName + " has " + primaryKey + " " + keyValue);
+			Object value = row.get(col.name);
+			if (value instanceof Boolean) return (Boolean) value ? 1 : 0;
+			return value == null ? 0 : ((Number) value).longValue();
+		}
+
+		String query = queries.getFor(Operation.SELECT, col.name, primaryKey);
+		Metrics metrics = SimpleSQL.getMetrics();
+		long start = metrics.start();
+		boolean failed = true;
+		try (Connection conn = SimpleSQL.getDatabase().getConnection();
+				PreparedStatement ps = conn.prepareStatement(query)) {
+			ps.setLong(1, keyValue);
+			try (ResultSet results = ps.executeQuery()) {
+				if (!results.next())
+					throw new SSQLException("No row in " + tableName + " has " + primaryKey + " " + keyValue);
+				long value;
+				if (col instanceof IntColumn) value = ((IntColumn) col).read(results, 1);
+				else if (col instanceof LongColumn) value = ((LongColumn) col).read(results, 1);
+				else value = ((BoolColumn) col).read(results, 1) ? 1 : 0;
+				failed = false;
+				return value;
+			}
+		} catch (SQLException ex) {
+			throw new SSQLException("Failed to execute SQL query: " + query, ex);
+		} finally {
+			metrics.record(tableName, OperationType.READ, query, start, failed ? 0 : 1, failed);
+		}
+	}
+
+	/**
+	 * Reads an {@link IntColumn} of every matching row into an int array,
+	 * without boxing each value like {@link #getInts(String, DataSet...)} does
+	 *
+	 * @param  name          The name of the column of values to retrieve
+	 * @param  where         The key-value pairs to match, or none to read every
+	 *                       row
+	 * @return               The values, with null read as 0. Empty if nothing
+	 *                       matches
+	 * @throws SSQLException If the column is not an IntColumn
+	 */
+	public int[] getIntArray(String name, DataSet... where) throws SSQLException {
+		return (int[]) readArray(typed(name, IntColumn.class), where);
+	}
+
+	/**
+	 * Reads a {@link LongColumn} of every matching row into a long array. See
+	 * {@link #getIntArray(String, DataSet...)}
+	 *
+	 * @param  name          The name of the column of values to retrieve
+	 * @param  where         The key-value pairs to match, or none to read every
+	 *                       row
+	 * @return               The values, with null read as 0. Empty if nothing
+	 *                       matches
+	 * @throws SSQLException If the column is not a LongColumn
+	 */
+	public long[] getLongArray(String name, DataSet... where) throws SSQLException {
+		return (long[]) readArray(typed(name, LongColumn.class), where);
+	}
+
+	/**
+	 * Reads a {@link BoolColumn} of every matching row into a boolean array.
+	 * See {@link #getIntArray(String, DataSet...)}
+	 *
+	 * @param  name          The name of the column of values to retrieve
+	 * @param  where         The key-value pairs to match, or none to read every
+	 *                       row
+	 * @return               The values, with null read as false. Empty if
+	 *                       nothing matches
+	 * @throws SSQLException If the column is not a BoolColumn
+	 */
+	public boolean[] getBoolArray(String name, DataSet... where) throws SSQLException {
+		return (boolean[]) readArray(typed(name, BoolColumn.class), where);
+	}
+
+	private Object readArray(SQLColumn<?> col, DataSet... where) throws SSQLException {
+		flushPending();
+		String query = queries.get(Operation.SELECT, col.name, where);
+		Metrics metrics = SimpleSQL.getMetrics();
+		long start = metrics.start();
+		int n = 0;
+		boolean failed = true;
+		try (Connection conn = SimpleSQL.getDatabase().getConnection();
+				PreparedStatement ps = conn.prepareStatement(query)) {
+			getInjector(0, where).inject(ps);
+			try (ResultSet results = ps.executeQuery()) {
+				Object array;
+				if (col instanceof IntColumn) {
+					int[] values = new int[16];
+					while (results.next()) {
+						if (n == values.length) values = Arrays.copyOf(values, n * 2);
+						values[n++] = ((IntColumn) col).read(results, 1);
+					}
+					array = Arrays.copyOf(values, n);
+				} else if (col instanceof LongColumn) {
+					long[] values = new long[16];
+					while (results.next()) {
+						if (n == values.length) values = Arrays.copyOf(values, n * 2);
+						values[n++] = ((LongColumn) col).read(results, 1);
+					}
+					array = Arrays.copyOf(values, n);
+				} else {
+					boolean[] values = new boolean[16];
+					while (results.next()) {
+						if (n == values.length) values = Arrays.copyOf(values, n * 2);
+						values[n++] = ((BoolColumn) col).read(results, 1);
+					}
+					array = Arrays.copyOf(values, n);
+				}
+				failed = false;
+				return array;
+			}
+		} catch (SQLException ex) {
+			throw new SSQLException("Failed to execute SQL query: " + query, ex);
+		} finally {
+			metrics.record(tableName, OperationType.READ, query, start, n, failed);
+		}
+	}
+
+	private SQLColumn<?> typed(String name, Class<? extends SQLColumn<?>> type) throws SSQLException {
+		SQLColumn<?> col = columns.get(name);
+		if (col == null) throw new SSQLException(name + " is not a valid column name");
+		if (!type.isInstance(col)) throw new SSQLException(name + " is not a column of type " + type.getSimpleName());
+		return col;
+	}
+
+	/**
+	 * Retrieves several columns of the row with the given primary key in one
+	 * query. With the row cache on, the row comes from the cache
+	 *
+	 * @param  keyValue      The primary key value of the row to look for
+	 * @param  names         The columns to read, or none to read every column
+	 * @return               The row, or null if no row has this key
+	 * @throws SSQLException If the table has no primary key or a name is not a
+	 *                       column of this table
+	 */
+	public Row getRow(Object keyValue, String... names) throws SSQLException {
+		if (!Checks.isValidObject(keyValue)) throw new SSQLException("The keyValue is an invalid type");
+		if (primaryKey == null) throw new SSQLException(tableName + " does not have a primary key");
+		String[] selected = selected(names);
+
+		WriteBehind wb = writeBehind;
+		Row row = readRowByKey(keyValue, selected);
+		if (row == null && wb != null && wb.size() > 0) {
+			// The row may only exist in the write-behind queue so far
+			flushPending();
+			row = readRowByKey(keyValue, selected);
+		}
+		if (row == null || wb == null) return row;
+
+		for (String name : selected) {
+			Object pending = wb.get(keyValue, name);
+			if (pending != WriteBehind.MISSING) row = row.with(name, pending);
+		}
+		return row;
+	}
+
+	/**
+	 * Retrieves every column of the first row matching the given values in one
+	 * query
+	 *
+	 * @param  where         The key-value pairs to match
+	 * @return               The row, or null if no row matches
+	 * @throws SSQLException If the DataSet array is empty
+	 */
+	public Row getRow(DataSet... where) throws SSQLException {
+		return getRow(new String[0], where);
+	}
+
+	/**
+	 * Retrieves the chosen columns of the first row matching the given values
+	 * in one query
+	 *
+	 * @param  names         The columns to read, or none to read every column
+	 * @param  where         The key-value pairs to match
+	 * @return               The row, or null if no row matches
+	 * @throws SSQLException If the DataSet array is empty or a name is not a
+	 *                       column of this table
+	 */
+	public Row getRow(String[] names, DataSet... where) throws SSQLException {
+		if (where == null || where.length == 0) throw new SSQLException("The DataSet array cannot be empty");
+		if (where.length == 1 && where[0].name.equals(primaryKey)) return getRow(where[0].value, names);
+		Object key = keyOf(where, true);
+		if (key != null) return readRowByKey(key, selected(names));
+		List<Row> rows = getRows(names, where);
+		return rows.isEmpty() ? null : rows.get(0);
+	}
+
+	/**
+	 * Retrieves every column of every row matching the given values in one
+	 * query
+	 *
+	 * @param  where         The key-value pairs to match, or none to read the
+	 *                       whole table
+	 * @return               The rows, which is empty if nothing matches
+	 * @throws SSQLException
+	 */
+	public List<Row> getRows(DataSet... where) throws SSQLException {
+		return getRows(new String[0], where);
+	}
+
+	/**
+	 * Retrieves the chosen columns of every row matching the given values in
+	 * one query
+	 *
+	 * @param  names         The columns to read, or none to read every column
+	 * @param  where         The key-value pairs to match, or none to read the
+	 *                       whole table
+	 * @return               The rows, which is empty if nothing matches
+	 * @throws SSQLException If a name is not a column of this table
+	 */
+	public List<Row> getRows(String[] names, DataSet... where) throws SSQLException {
+		String[] selected = selected(names);
+		flushPending();
+		String query = queries.get(Operation.ROW, String.join(", ", selected), where);
+		return readRows(selected, query, getInjector(0, where), false);
+	}
+
+	String[] selected(String[] names) throws SSQLException {
+		if (names == null || names.length == 0) return columnNames;
+		for (String name : names) {
+			if (!columns.containsKey(name)) throw new SSQLException(name + " is not a valid column name");
+		}
+		return names.clone();
+	}
+
+	private Row readRowByKey(Object keyValue, String[] selected) throws SSQLException {
+		RowCache c = cache;
+		if (c == null) {
+			String query = queries.getFor(Operation.ROW, String.join(", ", selected), keyNames);
+			List<Row> rows = readRows(selected, query, keyInjector(keyValue), true);
+			return rows.isEmpty() ? null : rows.get(0);
+		}
+
+		Object cached = c.get(keyValue);
+		Row row;
+		if (cached != RowCache.MISSING) {
+			row = (Row) cached;
+		} else {
+			long generation = c.generation();
+			row = readRow(keyValue);
+			if (SimpleSQL.getDatabase().getTransaction() == null) c.put(keyValue, row, generation);
+		}
+		return row == null || selected == columnNames ? row : row.select(selected);
+	}
+
+	List<Row> readRows(String[] names, String query, Injector injector, boolean first)
+			throws SSQLException {
+		ColumnCodec<?>[] codecs = codecs(names);
+		return read(query, injector, results -> {
+			List<Row> rows = new ArrayList<>();
+			while (results.next()) {
+				rows.add(decodeRow(results, names, codecs));
+				if (first) break;
+			}
+			return rows;
+		});
+	}
+
+	ColumnCodec<?>[] codecs(String[] names) {
+		ColumnCodec<?>[] codecs = new ColumnCodec<?>[names.length];
+		for (int i = 0; i < names.length; i++) { codecs[i] = columns.get(names[i]).getCodec(); }
+		return codecs;
+	}
+
+	Row decodeRow(ResultSet results, String[] names, ColumnCodec<?>[] codecs) throws SQLException {
+		Object[] values = new Object[names.length];
+		for (int i = 0; i < names.length; i++) { values[i] = codecs[i].read(results, i + 1); }
+		return new Row(names, values);
+	}
+
+	/**
+	 * Streams the values of a column instead of loading them all into a list
+	 * like {@link #getValues(String, DataSet...)} does. The rows are fetched
+	 * {@link org.bluemoondev.simplesql.pool.PoolConfig#setFetchSize(int)
+	 * fetchSize} at a time
+	 *
+	 * @param  <T>           The type of the column
+	 * @param  name          The name of the column to read
+	 * @param  where         The key-value pairs to match, or none to read every
+	 *                       row
+	 * @return               An open cursor over the values, which must be closed
+	 * @throws SSQLException If the query failed
+	 */
+	public <T> Cursor<T> cursor(String name, DataSet... where) throws SSQLException {
+		return cursor(SimpleSQL.getDatabase().getPoolConfig().getFetchSize(), name, where);
+	}
+
+	/**
+	 * Streams the values of a column, fetching the given number of rows at a
+	 * time. See {@link #cursor(String, DataSet...)}
+	 *
+	 * @param  <T>           The type of the column
+	 * @param  fetchSize     The number of rows per fetch
+	 * @param  name          The name of the column to read
+	 * @param  where         The key-value pairs to match, or none to read every
+	 *                       row
+	 * @return               An open cursor over the values, which must be closed
+	 * @throws SSQLException If the query failed
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Cursor<T> cursor(int fetchSize, String name, DataSet... where) throws SSQLException {
+		flushPending();
+		String query = queries.get(Operation.SELECT, name, where);
+		ColumnCodec<?> codec = columns.get(name).getCodec();
+		return openCursor(query, getInjector(0, where), fetchSize, results -> (T) codec.read(results, 1));
+	}
+
+	/**
+	 * Streams rows instead of loading them all into a list like
+	 * {@link #getRows(String[], DataSet...)} does. The rows are fetched
+	 * {@link org.bluemoondev.simplesql.pool.PoolConfig#setFetchSize(int)
+	 * fetchSize} at a time
+	 *
+	 * @param  names         The columns to read, or none to read every column
+	 * @param  where         The key-value pairs to match, or none to read every
+	 *                       row
+	 * @return               An open cursor over the rows, which must be closed
+	 * @throws SSQLException If the query failed
+	 */
+	public Cursor<Row> rowCursor(String[] names, DataSet... where) throws SSQLException {
+		return rowCursor(SimpleSQL.getDatabase().getPoolConfig().getFetchSize(), names, where);
+	}
+
+	/**
+	 * Streams rows, fetching the given number at a time. See
+	 * {@link #rowCursor(String[], DataSet...)}
+	 *
+	 * @param  fetchSize     The number of rows per fetch
+	 * @param  names         The columns to read, or none to read every column
+	 * @param  where         The key-value pairs to match, or none to read every
+	 *                       row
+	 * @return               An open cursor over the rows, which must be closed
+	 * @throws SSQLException If the query failed
+	 */
+	public Cursor<Row> rowCursor(int fetchSize, String[] names, DataSet... where) throws SSQLException {
+		String[] selected = selected(names);
+		flushPending();
+		String query = queries.get(Operation.ROW, String.join(", ", selected), where);
+		ColumnCodec<?>[] codecs = codecs(selected);
+		return openCursor(query, getInjector(0, where), fetchSize, results -> decodeRow(results, selected, codecs));
+	}
+
+	/**
+	 * Streams a {@link BlobColumn} value instead of reading it into an array.
+	 * The stream holds on to a pooled connection until it is closed, so always
+	 * use it in a try-with-resources block. Whether the value really arrives
+	 * in pieces depends on the driver; SQLite reads it whole
+	 *
+	 * @param  keyValue      The primary key value of the row
+	 * @param  name          The name of the column
+	 * @return               An open stream over the value, or null if no row
+	 *                       has this key or the value is null
+	 * @throws SSQLException If the column is not a BlobColumn or the query
+	 *                       failed
+	 */
+	public InputStream openBlob(Object keyValue, String name) throws SSQLException {
+		if (!Checks.isValidObject(keyValue)) throw new SSQLException("The keyValue is an invalid type");
+		if (primaryKey == null) throw new SSQLException(tableName + " does not have a primary key");
+		typed(name, BlobColumn.class);
+		WriteBehind wb = writeBehind;
+		if (wb != null) {
+			Object pending = wb.get(keyValue, name);
+			if (pending != WriteBehind.MISSING) return new ByteArrayInputStream((byte[]) pending);
+		}
+
+		String query = queries.getFor(Operation.SELECT, name, primaryKey);
+		Cursor<InputStream> cursor = openCursor(query, keyInjector(keyValue), 1, results -> results.getBinaryStream(1));
+		InputStream in;
+		try {
+			in = cursor.hasNext() ? cursor.next() : null;
+		} catch (UncheckedSSQLException ex) {
+			throw ex.getCause();
+		}
+		if (in == null) {
+			cursor.close();
+			return null;
+		}
+		return new FilterInputStream(in) {
+
+			@Override
+			public void close() throws IOException {
+				try {
+					super.close();
+				} finally {
+					cursor.close();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Reads a {@link BlobColumn} value as a buffer. The buffer wraps the array
+	 * the driver returned, so the value is not copied again
+	 *
+	 * @param  keyValue      The primary key value of the row
+	 * @param  name          The name of the column
+	 * @return               The value, or null if no row has this key or the
+	 *                       value is null
+	 * @throws SSQLException If the query failed
+	 */
+	public ByteBuffer getBuffer(Object keyValue, String name) throws SSQLException {
+		byte[] bytes = getValue(keyValue, name);
+		return bytes == null ? null : ByteBuffer.wrap(bytes);
+	}
+
+	<T> Cursor<T> openCursor(String query, Injector injector, int fetchSize, Cursor.Reader<T> reader)
+			throws SSQLException {
+		if (fetchSize < 1) throw new SSQLException("fetchSize must be at least 1");
+		Connection conn;
+		try {
+			conn = SimpleSQL.getDatabase().getConnection();
+		} catch (SQLException ex) {
+			throw new SSQLException("Failed to get a connection for SQL query: " + query, ex);
+		}
+		PreparedStatement ps = null;
+		try {
+			// Not taken from the statement cache, a statement with its fetch size
+			// changed would not be put back anyway
+			ps = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(fetchSize);
+			injector.inject(ps);
+			return new Cursor<>(query, conn, ps, ps.executeQuery(), reader);
+		} catch (SQLException ex) {
+			try {
+				if (ps != null) ps.close();
+				conn.close();
+			} catch (SQLException suppressed) {
+				ex.addSuppressed(suppressed);
+			}
+			throw new SSQLException("Failed to execute SQL query: " + query, ex);
+		}
+	}
+
+	/**
+	 * Retrieves a list of all values at every row for the specified column.
+	 * The whole column is loaded into memory, so use
+	 * {@link #cursor(String, DataSet...)} for large tables
 	 *
 	 * @param  <T>           The type of value for the column
 	 * @param  name          The column to retrieve the data from
@@ -583,20 +1801,9 @@ public abstract class SQLTable {
 	 *                       SQLColumn} of type T has been added to the table
 	 */
 	public <T> List<T> getValues(String name) throws SSQLException {
-		String query = selectAllFor(name);
-		List<T> values = new ArrayList<>();
-		Class<T> clazz = columns.get(name).getTypeClass();
-		set(query, results -> {
-			while (results.next()) {
-				try {
-					values.add(results.getObject(name, clazz));
-				} catch (SQLFeatureNotSupportedException ex) {
-					values.add(getValueFallback(clazz, results, name));
-				}
-			}
-		});
-
-		return values;
+		flushPending();
+		String query = queries.getFor(Operation.SELECT, name);
+		return readValues(query, new Injector(0), columns.get(name));
 	}
 
 	/**
@@ -658,23 +1865,16 @@ public abstract class SQLTable {
 	 * @param  <T>           The type of value to return, must be supported my SQL
 	 * @param  name          The name of the column of values to retrieve
 	 * @param  dataSets          An array of key-value pairs to use as locators
-	 * @return               A list of the values of type T
+	 * @return               A list of the values of type T, or null if no row
+	 *                       matches
 	 */
 	public <T> List<T> getValues(String name, DataSet... dataSets) throws SSQLException {
-		if (!checks(name, dataSets)) return null;
-		String strs[] = new String[dataSets.length];
-	
-		Injector injector = getInjector((i, s) -> {
-			strs[i] = s;
-		}, dataSets);
-	
-		String query = select(columns.get(name), strs);
-		List<T> values = new ArrayList<>();
-		Class<?> clazz = columns.get(name).getTypeClass();
-		set(query, injector, results -> {
-			while (results.next()) { values.add((T) results.getObject(name, clazz)); }
-		});
-		return values;
+		checks(name, dataSets);
+		flushPending();
+		String query = queries.get(Operation.SELECT, name, dataSets);
+		Injector injector = getInjector(0, dataSets);
+		List<T> values = readValues(query, injector, columns.get(name));
+		return values.isEmpty() ? null : values;
 	}
 
 	/**
@@ -741,15 +1941,11 @@ public abstract class SQLTable {
 	 * @throws SSQLException
 	 */
 	public <T> List<T> getValues(String keyName, Object key, String name) throws SSQLException {
-		String query = select(columns.get(keyName).set(), name);
-		Injector injector = new Injector();
-		injector.put(1, key);
-		List<T> values = new ArrayList<>();
-		Class<?> clazz = columns.get(name).getTypeClass();
-		set(query, injector, results -> {
-			while (results.next()) { values.add((T) results.getObject(name, clazz)); }
-		});
-		return values;
+		flushPending();
+		String query = queries.getFor(Operation.SELECT, name, keyName);
+		Injector injector = new Injector(1);
+		injector.put(1, columns.get(keyName), key);
+		return readValues(query, injector, columns.get(name));
 	}
 
 	/**
@@ -808,90 +2004,317 @@ public abstract class SQLTable {
 		return getValues(keyName, key, name);
 	}
 
-	private void set(String query, ResultsConsumer consumer) throws SSQLException {
-		set(query, null, consumer);
+	/**
+	 * Runs {@link #getValue(Object, String)} on the
+	 * {@link SimpleSQL#getAsyncExecutor() async executor}
+	 *
+	 * @param  <T>      The type to return, must be supported by SQL
+	 * @param  keyValue The primary key value of the row to look for
+	 * @param  name     The name of the column to get data from
+	 * @return          A future completed with the value, or completed
+	 *                  exceptionally with the {@link SSQLException} if the read
+	 *                  failed
+	 */
+	public <T> CompletableFuture<T> getValueAsync(Object keyValue, String name) {
+		return async(() -> getValue(keyValue, name));
 	}
 
-	private void set(String query, Injector injector, ResultsConsumer consumer) throws SSQLException {
-		try {
-			PreparedStatement ps = SimpleSQL.getDatabase().getPreparedStatement(query);
-			if(injector != null) injector.inject(ps);
-			ResultSet results = ps.executeQuery();
-			consumer.consume(results);
-			SimpleSQL.getDatabase().closeResultSet(results);
-			SimpleSQL.getDatabase().closeStatement(ps);
-		} catch (SQLException ex) {
-			LOG.error("Failed to execute SQL query: " + query, ex);
-		}
+	/**
+	 * Runs {@link #getValue(String, DataSet...)} on the
+	 * {@link SimpleSQL#getAsyncExecutor() async executor}
+	 *
+	 * @param  <T>      The type to return, must be supported by SQL
+	 * @param  name     The name of the column to get data from
+	 * @param  dataSets The key-value pairs to use as locators
+	 * @return          A future completed with the value, or completed
+	 *                  exceptionally with the {@link SSQLException} if the read
+	 *                  failed
+	 */
+	public <T> CompletableFuture<T> getValueAsync(String name, DataSet... dataSets) {
+		return async(() -> getValue(name, dataSets));
+	}
+
+	/**
+	 * Runs {@link #getValues(String, DataSet...)} on the
+	 * {@link SimpleSQL#getAsyncExecutor() async executor}
+	 *
+	 * @param  <T>      The type of value to return, must be supported by SQL
+	 * @param  name     The name of the column of values to retrieve
+	 * @param  dataSets The key-value pairs to use as locators
+	 * @return          A future completed with the values, or null if no row
+	 *                  matches
+	 */
+	public <T> CompletableFuture<List<T>> getValuesAsync(String name, DataSet... dataSets) {
+		return async(() -> getValues(name, dataSets));
 	}
 
-	private <T> T read(String query, Injector injector, ResultsSupplier<T> supplier) throws SSQLException {
+	/**
+	 * Runs {@link #exists(String, Object)} on the
+	 * {@link SimpleSQL#getAsyncExecutor() async executor}
+	 *
+	 * @param  key   The name of the column to look in
+	 * @param  value The value to look for
+	 * @return       A future completed with true if a row has the value
+	 */
+	public CompletableFuture<Boolean> existsAsync(String key, Object value) {
+		return async(() -> exists(key, value));
+	}
 
-		try {
-			PreparedStatement ps = SimpleSQL.getDatabase().getPreparedStatement(query);
-			injector.inject(ps);
-			ResultSet results = ps.executeQuery();
-			T re = supplier.apply(results);
-			SimpleSQL.getDatabase().closeResultSet(results);
-			SimpleSQL.getDatabase().closeStatement(ps);
+	/**
+	 * Runs {@link #exists(DataSet...)} on the
+	 * {@link SimpleSQL#getAsyncExecutor() async executor}
+	 *
+	 * @param  data The key-value pairs to look for
+	 * @return      A future completed with true if a row matches all of them
+	 */
+	public CompletableFuture<Boolean> existsAsync(DataSet... data) {
+		return async(() -> exists(data));
+	}
 
-			return re;
-		} catch (SQLException ex) {
-			LOG.error("Failed to execute SQL query: " + query, ex);
-		}
+	/**
+	 * Runs {@link #update(Object, String, Object)} on the
+	 * {@link SimpleSQL#getAsyncExecutor() async executor}
+	 *
+	 * @param  keyValue The key value where the table will be updated
+	 * @param  name     The name of the column to update
+	 * @param  newValue The new value for that column
+	 * @return          A future completed once the row has been written, or
+	 *                  completed exceptionally if the write failed
+	 */
+	public CompletableFuture<Void> updateAsync(Object keyValue, String name, Object newValue) {
+		return async(() -> {
+			update(keyValue, name, newValue);
+			return null;
+		});
+	}
+
+	/**
+	 * Runs {@link #update(String, Object, DataSet...)} on the
+	 * {@link SimpleSQL#getAsyncExecutor() async executor}
+	 *
+	 * @param  name     The name of the column to update
+	 * @param  newValue The new value for that column
+	 * @param  data     The key-value pairs to match
+	 * @return          A future completed once the rows have been written, or
+	 *                  completed exceptionally if the write failed
+	 */
+	public CompletableFuture<Void> updateAsync(String name, Object newValue, DataSet... data) {
+		return async(() -> {
+			update(name, newValue, data);
+			return null;
+		});
+	}
 
-		return null;
+	/**
+	 * Runs {@link #delete(Object)} on the
+	 * {@link SimpleSQL#getAsyncExecutor() async executor}
+	 *
+	 * @param  key The key of the row to delete
+	 * @return     A future completed once the row has been deleted
+	 */
+	public CompletableFuture<Void> deleteAsync(Object key) {
+		return async(() -> {
+			delete(key);
+			return null;
+		});
+	}
+
+	/**
+	 * Runs {@link #delete(DataSet...)} on the
+	 * {@link SimpleSQL#getAsyncExecutor() async executor}
+	 *
+	 * @param  data The key-value pairs to delete
+	 * @return      A future completed once the rows have been deleted
+	 */
+	public CompletableFuture<Void> deleteAsync(DataSet... data) {
+		return async(() -> {
+			delete(data);
+			return null;
+		});
 	}
 
-	private void write(String query, Injector injector) throws SSQLException {
+	/**
+	 * Runs a call on the async executor. The call runs on another thread, so
+	 * it is never part of a transaction the caller has open
+	 */
+	private <T> CompletableFuture<T> async(AsyncCall<T> call) {
+		CompletableFuture<T> future = new CompletableFuture<>();
 		try {
-			PreparedStatement ps = SimpleSQL.getDatabase().getPreparedStatement(query);
+			SimpleSQL.getAsyncExecutor().execute(() -> {
+				try {
+					future.complete(call.call());
+				} catch (Throwable t) {
+					future.completeExceptionally(t);
+				}
+			});
+		} catch (SSQLException | RejectedExecutionException ex) {
+			future.completeExceptionally(ex);
+		}
+		return future;
+	}
+
+	@SuppressWarnings("unchecked")
+	<T> List<T> readValues(String query, Injector injector, SQLColumn<?> col) throws SSQLException {
+		ColumnCodec<?> codec = col.getCodec();
+		return read(query, injector, results -> {
+			List<T> values = new ArrayList<>();
+			while (results.next()) { values.add((T) codec.read(results, 1)); }
+			return values;
+		});
+	}
+
+	<T> T read(String query, Injector injector, ResultsSupplier<T> supplier) throws SSQLException {
+		return read(OperationType.READ, query, injector, supplier);
+	}
+
+	private <T> T read(OperationType type, String query, Injector injector, ResultsSupplier<T> supplier)
+			throws SSQLException {
+		Metrics metrics = SimpleSQL.getMetrics();
+		long start = metrics.start();
+		T result = null;
+		boolean failed = true;
+		try (Connection conn = SimpleSQL.getDatabase().getConnection();
+				PreparedStatement ps = conn.prepareStatement(query)) {
 			injector.inject(ps);
-			ps.executeUpdate();
-			SimpleSQL.getDatabase().closeStatement(ps);
+			try (ResultSet results = ps.executeQuery()) {
+				result = supplier.apply(results);
+			}
+			failed = false;
+			return result;
 		} catch (SQLException ex) {
-			LOG.error("Failed to execute SQL query: " + query, ex);
+			throw new SSQLException("Failed to execute SQL query: " + query, ex);
+		} finally {
+			metrics.record(tableName, type, query, start, rowCount(result), failed);
 		}
+	}
 
+	/**
+	 * @return The number of rows behind a value read by a query
+	 */
+	private static long rowCount(Object result) {
+		if (result == null) return 0;
+		if (result instanceof Collection) return ((Collection<?>) result).size();
+		if (result instanceof Boolean) return (Boolean) result ? 1 : 0;
+		return 1;
 	}
 
-	private void writeNew(String query) throws SSQLException {
-		try {
-			PreparedStatement ps = SimpleSQL.getDatabase().getPreparedStatement(query);
-			ps.execute();
-			SimpleSQL.getDatabase().closeStatement(ps);
+	int write(String query, Injector injector) throws SSQLException {
+		Metrics metrics = SimpleSQL.getMetrics();
+		long start = metrics.start();
+		int rows = 0;
+		boolean failed = true;
+		try (Connection conn = SimpleSQL.getDatabase().getConnection();
+				PreparedStatement ps = conn.prepareStatement(query)) {
+			injector.inject(ps);
+			rows = ps.executeUpdate();
+			failed = false;
+			return rows;
 		} catch (SQLException ex) {
-			LOG.error("Failed to execute SQL query: " + query, ex);
+			throw new SSQLException("Failed to execute SQL query: " + query, ex);
+		} finally {
+			metrics.record(tableName, OperationType.WRITE, query, start, rows, failed);
 		}
 	}
 
-	private Injector getInjector(InjectorConsumer consumer, DataSet... dataSets) {
-		Injector injector = new Injector();
-
+	/**
+	 * Binds the DataSet values after the first <code>offset</code>
+	 * parameters, which the caller fills in
+	 */
+	Injector getInjector(int offset, DataSet... dataSets) {
+		Injector injector = new Injector(offset + dataSets.length);
 		for (int i = 0; i < dataSets.length; i++) {
-			consumer.consume(i, columns.get(dataSets[i].name).set());
-			injector.put(i + 1, dataSets[i].value);
+			injector.put(offset + i + 1, columns.get(dataSets[i].name), dataSets[i].value);
 		}
+		return injector;
+	}
 
+	/**
+	 * Binds the primary key value as the only parameter
+	 */
+	Injector keyInjector(Object keyValue) throws SSQLException {
+		Injector injector = new Injector(keyNames.length);
+		bindKey(injector, 0, keyValue);
 		return injector;
 	}
 
+	/**
+	 * Binds the primary key value after the first <code>offset</code>
+	 * parameters. A composite key value is the list of its column values, see
+	 * {@link #keyOf(DataSet[], boolean)}
+	 */
+	private void bindKey(Injector injector, int offset, Object keyValue) throws SSQLException {
+		List<?> values = checkKey(keyValue);
+		if (values == null) {
+			injector.put(offset + 1, keyColumns[0], keyValue);
+			return;
+		}
+		for (int i = 0; i < keyColumns.length; i++) { injector.put(offset + i + 1, keyColumns[i], values.get(i)); }
+	}
+
+	/**
+	 * @return The primary key value as DataSets, to insert a new row with
+	 */
+	private DataSet[] keyData(Object keyValue) throws SSQLException {
+		List<?> values = checkKey(keyValue);
+		if (values == null) return new DataSet[] { new DataSet(primaryKey, keyValue) };
+		DataSet[] data = new DataSet[keyNames.length];
+		for (int i = 0; i < data.length; i++) { data[i] = new DataSet(keyNames[i], values.get(i)); }
+		return data;
+	}
+
+	/**
+	 * Checks that a key value fits this table's primary key
+	 *
+	 * @return               The column values of a composite key, or null if
+	 *                       the key is a single column
+	 * @throws SSQLException If the table has no primary key, or it is
+	 *                       composite and the value is not a list with a value
+	 *                       for each of its columns
+	 */
+	private List<?> checkKey(Object keyValue) throws SSQLException {
+		if (keyColumns.length == 0) throw new SSQLException(tableName + " does not have a primary key");
+		if (keyColumns.length == 1) return null;
+		if (!(keyValue instanceof List) || ((List<?>) keyValue).size() != keyColumns.length)
+			throw new SSQLException("The primary key of " + tableName + " is " + String.join(", ", keyNames)
+					+ ", so the key value must be a List of " + keyColumns.length + " values");
+		return (List<?>) keyValue;
+	}
+
+	/**
+	 * Finds the primary key value in a set of DataSets, so that lookups by
+	 * the whole key can take the same single statement and cached paths as
+	 * lookups by a single key column. A composite key value is the list of
+	 * its column values in key order, which is also what it is cached under
+	 *
+	 * @param  data  The DataSets
+	 * @param  exact True if the DataSets must name the key columns and
+	 *               nothing else
+	 * @return       The key value, or null if the DataSets don't hold the
+	 *               whole key
+	 */
+	Object keyOf(DataSet[] data, boolean exact) {
+		int keys = keyNames.length;
+		if (keys == 0 || data.length < keys || (exact && data.length != keys)) return null;
+		Object[] values = new Object[keys];
+		int found = 0;
+		for (DataSet d : data) {
+			for (int i = 0; i < keys; i++) {
+				if (keyNames[i].equals(d.name)) {
+					if (values[i] != null) return null;
+					values[i] = d.value;
+					found++;
+				}
+			}
+		}
+		if (found != keys) return null;
+		return keys == 1 ? values[0] : Arrays.asList(values);
+	}
+
 	// TODO make more checks
-	private boolean checks(String name, DataSet... dataSets) throws SSQLException {
+	private void checks(String name, DataSet... dataSets) throws SSQLException {
 		if (!columns.containsKey(name)) throw new SSQLException(name + " is not a valid column name");
 		if (dataSets == null) throw new SSQLException("The DataSet array must not be null");
 		if (dataSets.length == 0) throw new SSQLException("The DataSet array must not be empty");
-
-		return exists(dataSets);
-	}
-
-	private <T> T getValueFallback(Class<T> clazz, ResultSet results, String name) throws SQLException {
-		if (clazz.equals(String.class)) return (T) results.getString(name);
-		if (clazz.equals(Long.class)) return (T) (Long) results.getLong(name);
-		if (clazz.equals(Integer.class)) return (T) (Integer) results.getInt(name);
-		if (clazz.equals(Boolean.class)) return (T) (Boolean) results.getBoolean(name);
-		// TODO add more
-		return null;
 	}
 
 	/**
@@ -901,25 +2324,33 @@ public abstract class SQLTable {
 	 */
 	public String getName() { return tableName; }
 
-	@FunctionalInterface
-	private interface InjectorConsumer {
-		public void consume(int index, String s);
+	private static final class Index {
+
+		private final String	name;
+		private final String[]	columns;
+		private final boolean	unique;
+
+		private Index(String name, String[] columns, boolean unique) {
+			this.name = name;
+			this.columns = columns.clone();
+			this.unique = unique;
+		}
 	}
 
 	/**
-	 * The functional interface to get called when no return value is needed
+	 * The functional interface for work handed to the async executor
 	 */
 	@FunctionalInterface
-	private interface ResultsConsumer {
+	private interface AsyncCall<T> {
 
-		public void consume(ResultSet results) throws SQLException;
+		public T call() throws SSQLException;
 	}
 
 	/**
 	 * The functional interface to get called when a return value is needed
 	 */
 	@FunctionalInterface
-	private interface ResultsSupplier<T> {
+	interface ResultsSupplier<T> {
 
 		public T apply(ResultSet results) throws SQLException;
 	}
@@ -14,17 +14,21 @@
 package org.bluemoondev.simplesql;
 
 import org.bluemoondev.blutilities.debug.Log;
+import org.bluemoondev.simplesql.pool.PoolConfig;
 
 import java.io.File;
+import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Properties;
 
 /**
  * <strong>Project:</strong> SimpleSQL<br>
  * <strong>File:</strong> SQLite.java<br>
  * <p>
  * Represents an SQLite database. This is a locally stored database file rather
- * than a server based one.
+ * than a server based one. {@link #inMemory(String)} creates one that lives
+ * only in memory instead
  * </p>
  *
  * @author <a href = "https://bluemoondev.org"> Matt</a>
@@ -33,7 +37,8 @@ public class SQLite extends Database {
 
 	private static final Log LOG = Log.get("SimpleSQL", SQLite.class);
 
-	private final File file;
+	private final String	url;
+	private final String	location;
 
 	/**
 	 * Creates an SQLite database with the given file
@@ -43,13 +48,53 @@ public class SQLite extends Database {
 	public SQLite(File file) {
 		super("org.sqlite.JDBC");
 		file.getParentFile().mkdirs();
-		this.file = file;
+		url = "jdbc:sqlite://" + file.getAbsolutePath();
+		location = "local database file " + file.getAbsolutePath();
+	}
+
+	private SQLite(String url, String location) {
+		super("org.sqlite.JDBC");
+		this.url = url;
+		this.location = location;
+	}
+
+	/**
+	 * Creates an SQLite database that is kept in memory and is gone once its
+	 * last connection is closed. Writers on a shared in-memory database fail
+	 * with SQLITE_LOCKED instead of waiting for each other, so the pool is set
+	 * to a single connection that is never retired for age. Callers queue for
+	 * it like for any other pooled connection, which means an open
+	 * {@link Cursor} blocks every other statement until it is closed. A
+	 * replacement {@link PoolConfig} should keep these settings
+	 *
+	 * @param  name The name of the database, shared by every in-memory database
+	 *              of the same name in this JVM
+	 * @return      The database
+	 */
+	public static SQLite inMemory(String name) {
+		SQLite db = new SQLite("jdbc:sqlite:file:" + name + "?mode=memory&cache=shared", "in-memory database " + name);
+		db.setPoolConfig(new PoolConfig().setMinSize(1).setMaxSize(1).setMaxLifetime(0));
+		return db;
+	}
+
+	@Override
+	protected Connection createConnection() throws SQLException {
+		LOG.info("Connecting to " + location);
+		// SQLite locks the whole file for writes, so pooled connections wait
+		// for each other instead of failing straight away with SQLITE_BUSY
+		Properties props = new Properties();
+		props.setProperty("busy_timeout", String.valueOf(getPoolConfig().getBorrowTimeout()));
+		return DriverManager.getConnection(url, props);
 	}
 
 	@Override
-	public void reactivateConnection() throws SQLException {
-		LOG.info("Connecting to local database file " + file.getAbsolutePath());
-		setConnection(DriverManager.getConnection("jdbc:sqlite://" + file.getAbsolutePath()));
+	public String getUpsertQuery(String tableName, String column, String... keys) {
+		String cols = String.join(", ", keys);
+		StringBuilder sb = new StringBuilder("INSERT INTO ").append(tableName).append(" (").append(cols).append(", ")
+				.append(column).append(") VALUES (");
+		for (int i = 0; i < keys.length; i++) { sb.append("?, "); }
+		return sb.append("?) ON CONFLICT (").append(cols).append(") DO UPDATE SET ").append(column)
+				.append(" = excluded.").append(column).toString();
 	}
 
 }
@@ -14,11 +14,19 @@
 package org.bluemoondev.simplesql;
 
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.bluemoondev.blutilities.debug.Log;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.bluemoondev.simplesql.exceptions.SSQLException;
+import org.bluemoondev.simplesql.metrics.Metrics;
 import org.bluemoondev.simplesql.utils.TableManager;
 
 /**
@@ -35,6 +43,12 @@ public class SimpleSQL {
 	private static final Log LOG = Log.get("SimpleSQL", SimpleSQL.class);
 
 	private static Database database;
+	private static Thread shutdownHook;
+
+	private static final Metrics metrics = new Metrics();
+
+	private static Executor	asyncExecutor;
+	private static boolean	ownsAsyncExecutor;
 
 	/**
 	 * Initializes the SimpleSQL API
@@ -60,4 +74,162 @@ public class SimpleSQL {
 		return database;
 	}
 
+	/**
+	 * Gets the metrics every table records its statements into. See
+	 * {@link Metrics}
+	 *
+	 * @return The metrics
+	 */
+	public static Metrics getMetrics() { return metrics; }
+
+	/**
+	 * Stops the default async executor, writes out every table's pending
+	 * write-behind updates and closes the connection pool. Call this before
+	 * the application exits
+	 *
+	 * @throws SSQLException If the database has not been initialized
+	 */
+	public static void shutdown() throws SSQLException {
+		Database db = getDatabase();
+		synchronized (SimpleSQL.class) {
+			stopAsyncExecutor();
+		}
+		TableManager.flushTables();
+		db.closeConnection();
+	}
+
+	/**
+	 * Gets the executor that runs the <code>...Async</code> methods of
+	 * {@link SQLTable}. Unless one has been set, a pool of daemon threads is
+	 * created the first time this is called, with as many threads as the
+	 * connection pool has connections. More threads would only wait for a
+	 * connection
+	 *
+	 * @return               The executor for async calls
+	 * @throws SSQLException If the database has not been initialized
+	 */
+	public static synchronized Executor getAsyncExecutor() throws SSQLException {
+		if (asyncExecutor == null) {
+			AtomicInteger count = new AtomicInteger();
+			asyncExecutor = Executors.newFixedThreadPool(getDatabase().getPoolConfig().getMaxSize(), r -> {
+				Thread t = new Thread(r, "SimpleSQL-async-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+			ownsAsyncExecutor = true;
+		}
+		return asyncExecutor;
+	}
+
+	/**
+	 * Sets the executor that runs the <code>...Async</code> methods of
+	 * {@link SQLTable}. The caller owns the executor and has to shut it down
+	 *
+	 * @param executor The executor to use
+	 */
+	public static synchronized void setAsyncExecutor(Executor executor) {
+		if (executor == null) throw new IllegalArgumentException("The executor cannot be null");
+		stopAsyncExecutor();
+		asyncExecutor = executor;
+		ownsAsyncExecutor = false;
+	}
+
+	/**
+	 * Runs each async call on its own virtual thread. Virtual threads are
+	 * cheap to block, so this suits applications that make many concurrent
+	 * async calls. The connection pool still limits how many queries run at
+	 * once. Needs Java 21 or newer
+	 *
+	 * @return False if this JVM has no virtual threads, in which case the
+	 *         current executor is kept
+	 */
+	public static synchronized boolean useVirtualThreads() {
+		ExecutorService executor;
+		try {
+			executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException ex) {
+			return false;
+		}
+		stopAsyncExecutor();
+		asyncExecutor = executor;
+		ownsAsyncExecutor = true;
+		return true;
+	}
+
+	private static void stopAsyncExecutor() {
+		if (ownsAsyncExecutor) ((ExecutorService) asyncExecutor).shutdown();
+		asyncExecutor = null;
+		ownsAsyncExecutor = false;
+	}
+
+	/**
+	 * Makes sure pending write-behind updates are written when the JVM exits
+	 * normally, even if {@link #shutdown()} is never called
+	 */
+	static synchronized void flushOnExit() {
+		if (shutdownHook != null) return;
+		shutdownHook = new Thread(TableManager::flushTables, "SimpleSQL-shutdown");
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+	}
+
+	/**
+	 * Runs the body in a transaction using the database's default isolation
+	 * level
+	 *
+	 * @param  body          The work to do
+	 * @throws SSQLException If the body threw, in which case everything it did
+	 *                       has been rolled back, or if the commit failed
+	 * @see                  #inTransaction(Transaction.Isolation, Transaction.Body)
+	 */
+	public static void inTransaction(Transaction.Body body) throws SSQLException {
+		inTransaction(Transaction.Isolation.DEFAULT, body);
+	}
+
+	/**
+	 * Runs the body in a transaction. Every SQLTable call the body makes on this
+	 * thread uses the same connection, and the work is committed when the body
+	 * returns or rolled back if it throws. Calling this from inside another
+	 * transaction joins the outer one
+	 *
+	 * <pre>
+	 * SimpleSQL.inTransaction(tx -&gt; {
+	 * 	table.update(id, "coins", coins - price);
+	 * 	inventory.update(id, "sword", true);
+	 * });
+	 * </pre>
+	 *
+	 * @param  isolation     The isolation level for the transaction
+	 * @param  body          The work to do
+	 * @throws SSQLException If the body threw, in which case everything it did
+	 *                       has been rolled back, or if the commit failed
+	 */
+	public static void inTransaction(Transaction.Isolation isolation, Transaction.Body body) throws SSQLException {
+		Database db = getDatabase();
+		Transaction outer = db.getTransaction();
+		if (outer != null) {
+			body.run(outer);
+			return;
+		}
+
+		try (Connection conn = db.getConnection()) {
+			conn.setAutoCommit(false);
+			if (isolation != Transaction.Isolation.DEFAULT) conn.setTransactionIsolation(isolation.level);
+
+			Transaction tx = new Transaction(conn);
+			db.setTransaction(tx);
+			try {
+				body.run(tx);
+				tx.commit();
+			} catch (Throwable t) {
+				tx.abort();
+				throw t;
+			} finally {
+				db.setTransaction(null);
+				tx.finish();
+			}
+		} catch (SQLException ex) {
+			throw new SSQLException("Failed to run the transaction", ex);
+		}
+	}
+
 }
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bluemoondev.blutilities.debug.Log;
+import org.bluemoondev.simplesql.exceptions.SSQLException;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> Transaction.java<br>
+ * <p>
+ * A unit of work started by
+ * {@link SimpleSQL#inTransaction(Transaction.Body)}. While it is open, every
+ * SQLTable call made on the same thread runs on the transaction's connection
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public class Transaction {
+
+	private static final Log LOG = Log.get("SimpleSQL", Transaction.class);
+
+	/**
+	 * The work to run inside a transaction
+	 */
+	@FunctionalInterface
+	public interface Body {
+
+		public void run(Transaction tx) throws SSQLException;
+	}
+
+	/**
+	 * Transaction isolation levels
+	 */
+	public enum Isolation {
+		/** Whatever the database's default level is */
+		DEFAULT(-1),
+		READ_UNCOMMITTED(Connection.TRANSACTION_READ_UNCOMMITTED),
+		READ_COMMITTED(Connection.TRANSACTION_READ_COMMITTED),
+		REPEATABLE_READ(Connection.TRANSACTION_REPEATABLE_READ),
+		SERIALIZABLE(Connection.TRANSACTION_SERIALIZABLE);
+
+		/** The JDBC constant for this level */
+		public final int level;
+
+		private Isolation(int level) {
+			this.level = level;
+		}
+	}
+
+	private final Connection		conn;
+	private final Connection		view;
+	private final List<Runnable>	onFinish;
+	private int						commits;
+
+	/**
+	 * @param conn The borrowed connection, already switched out of auto-commit
+	 */
+	Transaction(Connection conn) {
+		this.conn = conn;
+		onFinish = new ArrayList<>();
+		// SQLTable closes every connection it gets, which must not end the
+		// transaction, so it is handed a view that ignores close()
+		view = (Connection) Proxy.newProxyInstance(Transaction.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+						case "close":
+							return null;
+						case "equals":
+							return proxy == args[0];
+						case "hashCode":
+							return System.identityHashCode(proxy);
+						default:
+							try {
+								return method.invoke(conn, args);
+							} catch (InvocationTargetException ex) {
+								throw ex.getCause();
+							}
+					}
+				});
+	}
+
+	/**
+	 * Commits everything done so far. The transaction stays open and further
+	 * work is committed when the body finishes
+	 *
+	 * @throws SSQLException If the commit failed
+	 */
+	public void commit() throws SSQLException {
+		try {
+			conn.commit();
+			commits++;
+		} catch (SQLException ex) {
+			throw new SSQLException("Failed to commit the transaction", ex);
+		}
+	}
+
+	/**
+	 * @return How many times this transaction has been committed, including
+	 *         the final commit once the body has finished. Work done before
+	 *         the count last went up is kept even if the transaction later
+	 *         rolls back
+	 */
+	int getCommits() { return commits; }
+
+	/**
+	 * Undoes everything done since the transaction started or was last
+	 * committed. The transaction stays open
+	 *
+	 * @throws SSQLException If the rollback failed
+	 */
+	public void rollback() throws SSQLException {
+		try {
+			conn.rollback();
+		} catch (SQLException ex) {
+			throw new SSQLException("Failed to roll back the transaction", ex);
+		}
+	}
+
+	/**
+	 * Marks a point that the transaction can later be rolled back to
+	 *
+	 * @param  name          The name of the savepoint
+	 * @return               The savepoint
+	 * @throws SSQLException If the savepoint could not be created
+	 */
+	public Savepoint setSavepoint(String name) throws SSQLException {
+		try {
+			return conn.setSavepoint(name);
+		} catch (SQLException ex) {
+			throw new SSQLException("Failed to create savepoint " + name, ex);
+		}
+	}
+
+	/**
+	 * Undoes everything done since the savepoint was set
+	 *
+	 * @param  savepoint     The savepoint to roll back to
+	 * @throws SSQLException If the rollback failed
+	 */
+	public void rollback(Savepoint savepoint) throws SSQLException {
+		try {
+			conn.rollback(savepoint);
+		} catch (SQLException ex) {
+			throw new SSQLException("Failed to roll back to a savepoint", ex);
+		}
+	}
+
+	/**
+	 * Removes a savepoint. The work done since it was set is kept
+	 *
+	 * @param  savepoint     The savepoint to release
+	 * @throws SSQLException If the savepoint could not be released
+	 */
+	public void releaseSavepoint(Savepoint savepoint) throws SSQLException {
+		try {
+			conn.releaseSavepoint(savepoint);
+		} catch (SQLException ex) {
+			throw new SSQLException("Failed to release a savepoint", ex);
+		}
+	}
+
+	/**
+	 * @return The connection SQLTable calls use while this transaction is
+	 *         bound. Closing it does nothing
+	 */
+	Connection getConnection() { return view; }
+
+	/**
+	 * Runs the action once the transaction has been committed or rolled back
+	 * and is no longer bound to the thread
+	 */
+	void onFinish(Runnable action) {
+		onFinish.add(action);
+	}
+
+	/**
+	 * Runs the actions registered with {@link #onFinish(Runnable)}
+	 */
+	void finish() {
+		for (Runnable action : onFinish) {
+			try {
+				action.run();
+			} catch (RuntimeException ex) {
+				LOG.error("A transaction finish action failed", ex);
+			}
+		}
+		onFinish.clear();
+	}
+
+	/**
+	 * Rolls back after the body failed, without hiding the original error
+	 */
+	void abort() {
+		try {
+			conn.rollback();
+		} catch (SQLException ex) {
+			LOG.error("Failed to roll back the transaction", ex);
+		}
+	}
+
+}
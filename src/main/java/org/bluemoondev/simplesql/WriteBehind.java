@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.bluemoondev.blutilities.debug.Log;
+import org.bluemoondev.simplesql.exceptions.SSQLException;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> WriteBehind.java<br>
+ * <p>
+ * Holds primary key updates for a table in memory and writes them out from a
+ * background thread. Updates to the same key and column are coalesced, so
+ * only the latest value is ever written. See
+ * {@link SQLTable#enableWriteBehind(long, int)}
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+final class WriteBehind {
+
+	private static final Log LOG = Log.get("SimpleSQL", WriteBehind.class);
+
+	/** Returned by {@link #get(Object, String)} when nothing is pending */
+	static final Object MISSING = new Object();
+
+	private final SQLTable					table;
+	private final int						maxPending;
+	private final Map<PendingKey, Object>	pending;
+	private final ScheduledExecutorService	flusher;
+	private final AtomicBoolean				flushQueued;
+	private final Object					flushLock;
+
+	/**
+	 * @param table         The table to write to
+	 * @param flushInterval How often, in milliseconds, pending writes are
+	 *                      flushed
+	 * @param maxPending    How many pending writes trigger an early flush
+	 */
+	WriteBehind(SQLTable table, long flushInterval, int maxPending) {
+		this.table = table;
+		this.maxPending = maxPending;
+		pending = new ConcurrentHashMap<>();
+		flushQueued = new AtomicBoolean();
+		flushLock = new Object();
+		flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "SimpleSQL-write-behind-" + table.getName());
+			t.setDaemon(true);
+			return t;
+		});
+		flusher.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Queues a write, replacing any pending value for the same key and column
+	 */
+	void put(Object keyValue, String name, Object value) {
+		pending.put(new PendingKey(keyValue, name), value);
+		if (pending.size() >= maxPending && flushQueued.compareAndSet(false, true))
+			flusher.execute(this::flushQuietly);
+	}
+
+	/**
+	 * @return The pending value for this key and column, or {@link #MISSING}
+	 */
+	Object get(Object keyValue, String name) {
+		Object value = pending.get(new PendingKey(keyValue, name));
+		return value == null ? MISSING : value;
+	}
+
+	/**
+	 * Runs a direct write of one row. See
+	 * {@link #writeThrough(List, List, Action)}
+	 *
+	 * @param keyValue The key of the row written
+	 * @param name     The column written, or null if the row is deleted
+	 * @param write    The direct write
+	 */
+	void writeThrough(Object keyValue, String name, Action write) throws SSQLException {
+		writeThrough(Collections.singletonList(keyValue), Collections.singletonList(name), write);
+	}
+
+	/**
+	 * Takes the pending values a direct write replaces out of the queue and
+	 * runs the write while no flush can happen. Otherwise a flush that already
+	 * read an older value could write it over the new one, or bring a deleted
+	 * row back. The values are queued again if the write fails, or if it is
+	 * part of a transaction that doesn't commit it
+	 *
+	 * @param keyValues The keys of the rows written
+	 * @param names     For each key the column written, or null if the whole
+	 *                  row is deleted
+	 * @param write     The direct write
+	 */
+	void writeThrough(List<Object> keyValues, List<String> names, Action write) throws SSQLException {
+		synchronized (flushLock) {
+			Map<PendingKey, Object> taken = new HashMap<>();
+			for (int i = 0; i < keyValues.size(); i++) {
+				String name = names.get(i);
+				if (name != null) {
+					PendingKey k = new PendingKey(keyValues.get(i), name);
+					Object value = pending.remove(k);
+					if (value != null) taken.put(k, value);
+					continue;
+				}
+				Object key = RowCache.normalize(keyValues.get(i));
+				for (Map.Entry<PendingKey, Object> e : pending.entrySet()) {
+					if (e.getKey().key.equals(key) && pending.remove(e.getKey(), e.getValue()))
+						taken.put(e.getKey(), e.getValue());
+				}
+			}
+
+			try {
+				write.run();
+			} catch (SSQLException | RuntimeException ex) {
+				restore(taken);
+				throw ex;
+			}
+
+			Transaction tx = SimpleSQL.getDatabase().getTransaction();
+			if (tx != null && !taken.isEmpty()) {
+				int commits = tx.getCommits();
+				tx.onFinish(() -> {
+					if (tx.getCommits() == commits) restore(taken);
+				});
+			}
+		}
+	}
+
+	/**
+	 * Queues values again that a direct write took out, unless newer ones
+	 * have been queued since
+	 */
+	private void restore(Map<PendingKey, Object> taken) {
+		for (Map.Entry<PendingKey, Object> e : taken.entrySet()) { pending.putIfAbsent(e.getKey(), e.getValue()); }
+	}
+
+	/**
+	 * @return The number of writes waiting to be flushed
+	 */
+	int size() {
+		return pending.size();
+	}
+
+	/**
+	 * Writes every pending value in one batched transaction. Values that change
+	 * while the flush is running stay pending for the next flush
+	 *
+	 * @throws SSQLException If the flush failed. The values stay pending
+	 */
+	void flush() throws SSQLException {
+		synchronized (flushLock) {
+			flushQueued.set(false);
+			if (pending.isEmpty()) return;
+
+			List<Map.Entry<PendingKey, Object>> snapshot = new ArrayList<>(pending.entrySet());
+			SimpleSQL.inTransaction(tx -> {
+				Batch batch = new Batch(table, true);
+				for (Map.Entry<PendingKey, Object> e : snapshot) {
+					PendingKey k = e.getKey();
+					if (table.canUpsert(k.name)) batch.update(k.keyValue, k.name, e.getValue());
+					else table.updateNow(k.keyValue, k.name, e.getValue());
+				}
+				batch.execute();
+			});
+
+			for (Map.Entry<PendingKey, Object> e : snapshot) { pending.remove(e.getKey(), e.getValue()); }
+		}
+	}
+
+	/**
+	 * Flushes what is left and stops the background thread
+	 *
+	 * @throws SSQLException If the final flush failed. The thread keeps
+	 *                       running, so the values are retried
+	 */
+	void shutdown() throws SSQLException {
+		flush();
+		flusher.shutdown();
+	}
+
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (SSQLException | RuntimeException ex) {
+			LOG.error("Failed to flush pending writes to " + table.getName() + ", they will be retried", ex);
+		}
+	}
+
+	@FunctionalInterface
+	interface Action {
+
+		public void run() throws SSQLException;
+	}
+
+	private static final class PendingKey {
+
+		/** The key as it was given, which is what gets written */
+		private final Object	keyValue;
+		/** The key compared by, see {@link RowCache#normalize(Object)} */
+		private final Object	key;
+		private final String	name;
+
+		private PendingKey(Object keyValue, String name) {
+			this.keyValue = keyValue;
+			this.key = RowCache.normalize(keyValue);
+			this.name = name;
+		}
+
+		@Override
+		public int hashCode() {
+			return key.hashCode() * 31 + name.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof PendingKey)) return false;
+			PendingKey k = (PendingKey) o;
+			return key.equals(k.key) && name.equals(k.name);
+		}
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> Table.java<br>
+ * <p>
+ * Marks a class whose static <code>SQLColumn</code> fields describe a table.
+ * With the SimpleSQL-processor on the annotation processor path, compiling
+ * the class generates two more in the same package: <code>NameTable</code>,
+ * an {@link org.bluemoondev.simplesql.SQLTable SQLTable} built from the
+ * columns without reflection, with an <code>int</code> constant holding each
+ * column's ordinal, and <code>NameDao</code>, with a typed getter and setter
+ * for every column
+ * </p>
+ *
+ * <pre>
+ * &#64;Table("players")
+ * public class Players {
+ * 	static final SQLColumn&lt;Long&gt;		ID		= new LongColumn("id", null, true);
+ * 	static final SQLColumn&lt;String&gt;	NAME	= new StringColumn("name", "", 32);
+ * }
+ *
+ * PlayersTable table = new PlayersTable();
+ * PlayersDao players = new PlayersDao(table);
+ * SimpleSQL.init(database);
+ * players.setName(1L, "Sara");
+ * String name = players.getName(1L);
+ * </pre>
+ *
+ * The column fields must be static and must not be private
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Table {
+
+	/**
+	 * @return The name of the table in the database
+	 */
+	String value();
+
+}
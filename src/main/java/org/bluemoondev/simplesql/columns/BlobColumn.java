@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.columns;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> BlobColumn.java<br>
+ * <p>
+ * Represents a column for binary data of any size. Values can be written as a
+ * <code>byte[]</code>, a {@link ByteBuffer} or an {@link InputStream}, and are
+ * handed to the driver as they are, without an extra copy. Reading the column
+ * gives a <code>byte[]</code>, or use
+ * {@link org.bluemoondev.simplesql.SQLTable#openBlob(Object, String) openBlob}
+ * to stream it
+ * </p>
+ *
+ * <p>
+ * A ByteBuffer is written from its position to its limit and is left
+ * unchanged. An InputStream is read to its end and can only be written once,
+ * so such updates skip write-behind and are never cached. SQLite can't take a
+ * stream of unknown length, so there it is read into an array first
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public class BlobColumn extends SQLColumn<byte[]> {
+
+	/**
+	 * Creates a nullable blob column. Blobs can't have a default value
+	 *
+	 * @param name The name of this column
+	 */
+	public BlobColumn(String name) {
+		super(name, null);
+	}
+
+	@Override
+	public void bind(PreparedStatement ps, int index, Object value) throws SQLException {
+		if (value instanceof ByteBuffer) {
+			ByteBuffer buffer = (ByteBuffer) value;
+			ps.setBinaryStream(index, stream(buffer), buffer.remaining());
+		} else if (value instanceof InputStream) {
+			try {
+				ps.setBinaryStream(index, (InputStream) value);
+			} catch (SQLFeatureNotSupportedException ex) {
+				// SQLite needs the length up front, which a stream doesn't have
+				ps.setBytes(index, readFully((InputStream) value));
+			}
+		} else {
+			super.bind(ps, index, value);
+		}
+	}
+
+	private byte[] readFully(InputStream in) throws SQLException {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int n;
+			while ((n = in.read(buffer)) != -1) { out.write(buffer, 0, n); }
+			return out.toByteArray();
+		} catch (IOException ex) {
+			throw new SQLException("Failed to read the stream for " + name, ex);
+		}
+	}
+
+	private static InputStream stream(ByteBuffer buffer) {
+		if (buffer.hasArray())
+			return new ByteArrayInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(),
+					buffer.remaining());
+		ByteBuffer view = buffer.duplicate();
+		return new InputStream() {
+
+			@Override
+			public int read() {
+				return view.hasRemaining() ? view.get() & 0xFF : -1;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) {
+				if (len == 0) return 0;
+				if (!view.hasRemaining()) return -1;
+				int n = Math.min(len, view.remaining());
+				view.get(b, off, n);
+				return n;
+			}
+
+			@Override
+			public int available() {
+				return view.remaining();
+			}
+		};
+	}
+
+	@Override
+	protected String getType() { return "LONGBLOB"; }
+
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.columns;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> Codecs.java<br>
+ * <p>
+ * The registry of {@link ColumnCodec ColumnCodecs}, one per {@link SQLColumn}
+ * class. A column uses the codec registered for its own class, or for the
+ * nearest superclass that has one. Columns without any codec fall back to
+ * <code>setObject</code> and <code>getObject</code>
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public final class Codecs {
+
+	private static final Map<Class<?>, ColumnCodec<?>>	CODECS		= new ConcurrentHashMap<>();
+	private static final Map<Class<?>, ColumnCodec<?>>	BY_VALUE	= new ConcurrentHashMap<>();
+
+	/** Cached in {@link #BY_VALUE} for value types no codec binds */
+	private static final ColumnCodec<?> NONE = new ObjectCodec<>(Object.class);
+
+	private Codecs() {}
+
+	static {
+		register(IntColumn.class, new ColumnCodec<Integer>() {
+
+			@Override
+			public Class<Integer> getType() { return Integer.class; }
+
+			@Override
+			public int getSqlType() { return Types.INTEGER; }
+
+			@Override
+			public void bind(PreparedStatement ps, int index, Integer value) throws SQLException {
+				ps.setInt(index, value);
+			}
+
+			@Override
+			public Integer read(ResultSet results, int index) throws SQLException {
+				int value = results.getInt(index);
+				return value == 0 && results.wasNull() ? null : value;
+			}
+		});
+		register(LongColumn.class, new ColumnCodec<Long>() {
+
+			@Override
+			public Class<Long> getType() { return Long.class; }
+
+			@Override
+			public int getSqlType() { return Types.BIGINT; }
+
+			@Override
+			public void bind(PreparedStatement ps, int index, Long value) throws SQLException {
+				ps.setLong(index, value);
+			}
+
+			@Override
+			public Long read(ResultSet results, int index) throws SQLException {
+				long value = results.getLong(index);
+				return value == 0 && results.wasNull() ? null : value;
+			}
+		});
+		register(BoolColumn.class, new ColumnCodec<Boolean>() {
+
+			@Override
+			public Class<Boolean> getType() { return Boolean.class; }
+
+			@Override
+			public int getSqlType() { return Types.BOOLEAN; }
+
+			@Override
+			public void bind(PreparedStatement ps, int index, Boolean value) throws SQLException {
+				ps.setBoolean(index, value);
+			}
+
+			@Override
+			public Boolean read(ResultSet results, int index) throws SQLException {
+				boolean value = results.getBoolean(index);
+				return !value && results.wasNull() ? null : value;
+			}
+		});
+		register(StringColumn.class, new ColumnCodec<String>() {
+
+			@Override
+			public Class<String> getType() { return String.class; }
+
+			@Override
+			public int getSqlType() { return Types.VARCHAR; }
+
+			@Override
+			public void bind(PreparedStatement ps, int index, String value) throws SQLException {
+				ps.setString(index, value);
+			}
+
+			@Override
+			public String read(ResultSet results, int index) throws SQLException {
+				return results.getString(index);
+			}
+		});
+		register(DoubleColumn.class, new ColumnCodec<Double>() {
+
+			@Override
+			public Class<Double> getType() { return Double.class; }
+
+			@Override
+			public int getSqlType() { return Types.DOUBLE; }
+
+			@Override
+			public void bind(PreparedStatement ps, int index, Double value) throws SQLException {
+				ps.setDouble(index, value);
+			}
+
+			@Override
+			public Double read(ResultSet results, int index) throws SQLException {
+				double value = results.getDouble(index);
+				return value == 0 && results.wasNull() ? null : value;
+			}
+		});
+		register(TimestampColumn.class, new ColumnCodec<Instant>() {
+
+			@Override
+			public Class<Instant> getType() { return Instant.class; }
+
+			@Override
+			public int getSqlType() { return Types.BIGINT; }
+
+			@Override
+			public void bind(PreparedStatement ps, int index, Instant value) throws SQLException {
+				ps.setLong(index, value.toEpochMilli());
+			}
+
+			@Override
+			public Instant read(ResultSet results, int index) throws SQLException {
+				long millis = results.getLong(index);
+				return millis == 0 && results.wasNull() ? null : Instant.ofEpochMilli(millis);
+			}
+		});
+		register(UuidColumn.class, new ColumnCodec<UUID>() {
+
+			@Override
+			public Class<UUID> getType() { return UUID.class; }
+
+			@Override
+			public int getSqlType() { return Types.BINARY; }
+
+			@Override
+			public void bind(PreparedStatement ps, int index, UUID value) throws SQLException {
+				ps.setBytes(index, UuidColumn.toBytes(value));
+			}
+
+			@Override
+			public UUID read(ResultSet results, int index) throws SQLException {
+				byte[] bytes = results.getBytes(index);
+				if (bytes == null) return null;
+				if (bytes.length != 16) throw new SQLException("A UUID must be 16 bytes, not " + bytes.length);
+				ByteBuffer buffer = ByteBuffer.wrap(bytes);
+				return new UUID(buffer.getLong(), buffer.getLong());
+			}
+		});
+		register(BlobColumn.class, new ColumnCodec<byte[]>() {
+
+			@Override
+			public Class<byte[]> getType() { return byte[].class; }
+
+			@Override
+			public int getSqlType() { return Types.BLOB; }
+
+			@Override
+			public boolean accepts(Class<?> type) {
+				return type == byte[].class || ByteBuffer.class.isAssignableFrom(type)
+						|| InputStream.class.isAssignableFrom(type);
+			}
+
+			@Override
+			public void bind(PreparedStatement ps, int index, byte[] value) throws SQLException {
+				ps.setBytes(index, value);
+			}
+
+			@Override
+			public byte[] read(ResultSet results, int index) throws SQLException {
+				return results.getBytes(index);
+			}
+		});
+		register(DecimalColumn.class, new ColumnCodec<BigDecimal>() {
+
+			@Override
+			public Class<BigDecimal> getType() { return BigDecimal.class; }
+
+			@Override
+			public int getSqlType() { return Types.DECIMAL; }
+
+			@Override
+			public void bind(PreparedStatement ps, int index, BigDecimal value) throws SQLException {
+				ps.setBigDecimal(index, value);
+			}
+
+			@Override
+			public BigDecimal read(ResultSet results, int index) throws SQLException {
+				return results.getBigDecimal(index);
+			}
+		});
+	}
+
+	/**
+	 * Registers the codec for a column class, replacing any codec it had. Its
+	 * subclasses use it too unless they have their own
+	 *
+	 * @param <T>        The Java type of the column
+	 * @param columnType The column class
+	 * @param codec      The codec for the column's values
+	 */
+	public static <T> void register(Class<? extends SQLColumn<T>> columnType, ColumnCodec<T> codec) {
+		if (columnType == null || codec == null) throw new IllegalArgumentException("columnType and codec must not be null");
+		CODECS.put(columnType, codec);
+		BY_VALUE.clear();
+	}
+
+	/**
+	 * @param  columnType The column class
+	 * @return            The codec used for the column class, or null if
+	 *                    neither it nor a superclass has one
+	 */
+	public static ColumnCodec<?> get(Class<?> columnType) {
+		for (Class<?> c = columnType; c != null && c != SQLColumn.class; c = c.getSuperclass()) {
+			ColumnCodec<?> codec = CODECS.get(c);
+			if (codec != null) return codec;
+		}
+		return null;
+	}
+
+	/**
+	 * @param  value The value to check
+	 * @return       True if some codec can bind the value
+	 */
+	public static boolean isSupported(Object value) {
+		return forValue(value) != null;
+	}
+
+	/**
+	 * @param  value The value to bind
+	 * @return       The codec of a column the value can be written to, or null
+	 *               if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public static ColumnCodec<Object> forValue(Object value) {
+		if (value == null) return null;
+		ColumnCodec<?> codec = BY_VALUE.computeIfAbsent(value.getClass(), type -> {
+			for (ColumnCodec<?> c : CODECS.values()) { if (c.accepts(type)) return c; }
+			return NONE;
+		});
+		return codec == NONE ? null : (ColumnCodec<Object>) codec;
+	}
+
+	/**
+	 * The codec for columns whose class has none registered. The driver does
+	 * the conversion
+	 */
+	static final class ObjectCodec<T> implements ColumnCodec<T> {
+
+		private final Class<T> type;
+
+		ObjectCodec(Class<T> type) {
+			this.type = type;
+		}
+
+		@Override
+		public Class<T> getType() { return type; }
+
+		@Override
+		public int getSqlType() { return Types.NULL; }
+
+		@Override
+		public void bind(PreparedStatement ps, int index, T value) throws SQLException {
+			ps.setObject(index, value);
+		}
+
+		@Override
+		public T read(ResultSet results, int index) throws SQLException {
+			try {
+				return results.getObject(index, type);
+			} catch (SQLFeatureNotSupportedException ex) {
+				return type.cast(results.getObject(index));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.columns;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> ColumnCodec.java<br>
+ * <p>
+ * Moves the values of one kind of column between Java and JDBC. Every read
+ * and write of a column goes through the codec registered for its class in
+ * {@link Codecs}, so a new column type only needs a codec to work everywhere
+ * the built-in ones do
+ * </p>
+ *
+ * <pre>
+ * Codecs.register(PointColumn.class, new ColumnCodec&lt;Point&gt;() {
+ * 	public Class&lt;Point&gt; getType() { return Point.class; }
+ * 	public int getSqlType() { return Types.BIGINT; }
+ * 	public void bind(PreparedStatement ps, int index, Point value) throws SQLException {
+ * 		ps.setLong(index, value.pack());
+ * 	}
+ * 	public Point read(ResultSet results, int index) throws SQLException {
+ * 		long packed = results.getLong(index);
+ * 		return results.wasNull() ? null : Point.unpack(packed);
+ * 	}
+ * });
+ * </pre>
+ *
+ * @param  <T> The Java type of the values
+ * @author     <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public interface ColumnCodec<T> {
+
+	/**
+	 * @return The Java type of the values. A value of this type can be used in
+	 *         a DataSet or as a key
+	 */
+	public Class<T> getType();
+
+	/**
+	 * Checks whether values of a type can be written to the column. By default
+	 * that is the type from {@link #getType()} and its subtypes. A column that
+	 * also takes other types on write widens this and binds them itself in
+	 * {@link SQLColumn#bind(PreparedStatement, int, Object)}
+	 *
+	 * @param  type The type of a value
+	 * @return      True if such values can be written
+	 */
+	public default boolean accepts(Class<?> type) {
+		return getType().isAssignableFrom(type);
+	}
+
+	/**
+	 * @return The {@link java.sql.Types} code used to bind a null value
+	 */
+	public int getSqlType();
+
+	/**
+	 * Binds a value to a statement parameter
+	 *
+	 * @param  ps           The statement
+	 * @param  index        The parameter index
+	 * @param  value        The value, never null
+	 * @throws SQLException If the value could not be bound
+	 */
+	public void bind(PreparedStatement ps, int index, T value) throws SQLException;
+
+	/**
+	 * Reads a value from the current row
+	 *
+	 * @param  results      The results, positioned on a row
+	 * @param  index        The position of the column in the results
+	 * @return              The value, or null if it is SQL NULL
+	 * @throws SQLException If the value could not be read
+	 */
+	public T read(ResultSet results, int index) throws SQLException;
+
+}
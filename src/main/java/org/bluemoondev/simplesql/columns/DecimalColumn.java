@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.columns;
+
+import java.math.BigDecimal;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> DecimalColumn.java<br>
+ * <p>
+ * Represents a column for exact decimal data, such as money. MySQL stores the
+ * values exactly. SQLite has no decimal type and stores them as numbers where
+ * it can, keeping about 15 significant digits
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public class DecimalColumn extends SQLColumn<BigDecimal> {
+
+	private final int	precision;
+	private final int	scale;
+
+	/**
+	 * @param name         The name of this column
+	 * @param defaultValue The default value, or null if it shall have no default
+	 *                     value
+	 * @param precision    The total number of digits
+	 * @param scale        The number of digits after the decimal point
+	 */
+	public DecimalColumn(String name, BigDecimal defaultValue, int precision, int scale) {
+		super(name, defaultValue);
+		this.precision = precision;
+		this.scale = scale;
+	}
+
+	@Override
+	protected String getType() { return "DECIMAL(" + precision + ", " + scale + ")"; }
+
+	@Override
+	protected String defaultable() {
+		return defaultValue == null ? "" : " DEFAULT " + defaultValue.toPlainString();
+	}
+
+}
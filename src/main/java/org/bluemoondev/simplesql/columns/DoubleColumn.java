@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.columns;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> DoubleColumn.java<br>
+ * <p>
+ * Represents a column for double precision floating point data
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public class DoubleColumn extends SQLColumn<Double> {
+
+	public DoubleColumn(String name, Double defaultValue) {
+		super(name, defaultValue);
+	}
+
+	/**
+	 * Reads this column from the current row without boxing the value
+	 *
+	 * @param  results      The results, positioned on a row
+	 * @param  index        The position of this column in the results
+	 * @return              The value, or 0 if it is SQL NULL
+	 * @throws SQLException If the value could not be read
+	 */
+	public double read(ResultSet results, int index) throws SQLException {
+		return results.getDouble(index);
+	}
+
+	/**
+	 * Binds a value for this column to a statement parameter without boxing it
+	 *
+	 * @param  ps           The statement
+	 * @param  index        The parameter index
+	 * @param  value        The value to bind
+	 * @throws SQLException If the value could not be bound
+	 */
+	public void bind(PreparedStatement ps, int index, double value) throws SQLException {
+		ps.setDouble(index, value);
+	}
+
+	@Override
+	protected String getType() { return "DOUBLE"; }
+
+}
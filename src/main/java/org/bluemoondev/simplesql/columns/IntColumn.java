@@ -13,6 +13,10 @@
  */
 package org.bluemoondev.simplesql.columns;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
 /**
  * <strong>Project:</strong> SimpleSQL<br>
  * <strong>File:</strong> IntColumn.java<br>
@@ -32,6 +36,30 @@ public class IntColumn extends SQLColumn<Integer> {
 		super(name, defaultValue);
 	}
 
+	/**
+	 * Reads this column from the current row without boxing the value
+	 *
+	 * @param  results      The results, positioned on a row
+	 * @param  index        The position of this column in the results
+	 * @return              The value, or 0 if it is SQL NULL
+	 * @throws SQLException If the value could not be read
+	 */
+	public int read(ResultSet results, int index) throws SQLException {
+		return results.getInt(index);
+	}
+
+	/**
+	 * Binds a value for this column to a statement parameter without boxing it
+	 *
+	 * @param  ps           The statement
+	 * @param  index        The parameter index
+	 * @param  value        The value to bind
+	 * @throws SQLException If the value could not be bound
+	 */
+	public void bind(PreparedStatement ps, int index, int value) throws SQLException {
+		ps.setInt(index, value);
+	}
+
 	@Override
 	protected String getType() { return "INTEGER"; }
 
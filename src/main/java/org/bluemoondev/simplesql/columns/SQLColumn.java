@@ -13,7 +13,11 @@
  */
 package org.bluemoondev.simplesql.columns;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
 import org.bluemoondev.blutilities.generics.AbstractType;
+import org.bluemoondev.simplesql.Condition;
 import org.bluemoondev.simplesql.utils.Checks;
 
 /**
@@ -32,11 +36,16 @@ public abstract class SQLColumn<T> extends AbstractType<T> {
 	public final T			defaultValue;
 	public final boolean	primary;
 
-	private boolean nullable;
+	private boolean	nullable;
+	private boolean	indexed;
+
+	/** Looked up on first use, see {@link #getCodec()} */
+	private ColumnCodec<T> codec;
 
 	/**
 	 * Creates an instance of an <code>SQLColumn</code> of the given type. Can be
-	 * <code>IntColumn, LongColumn, BoolColumn, StringColumn</code> and any other
+	 * <code>IntColumn, LongColumn, BoolColumn, StringColumn, DoubleColumn,
+	 * TimestampColumn, UuidColumn, DecimalColumn</code> and any other
 	 * derived type.
 	 *
 	 * @param name         The name of this column
@@ -53,7 +62,8 @@ public abstract class SQLColumn<T> extends AbstractType<T> {
 
 	/**
 	 * Creates an instance of an <code>SQLColumn</code> of the given type. Can be
-	 * <code>IntColumn, LongColumn, BoolColumn, StringColumn</code> and any other
+	 * <code>IntColumn, LongColumn, BoolColumn, StringColumn, DoubleColumn,
+	 * TimestampColumn, UuidColumn, DecimalColumn</code> and any other
 	 * derived type. It is important to note
 	 * that using this constructor, the <strong><code>primary</code> will be set to
 	 * false</strong> meaning this column
@@ -78,9 +88,44 @@ public abstract class SQLColumn<T> extends AbstractType<T> {
 		return this;
 	}
 
+	/**
+	 * @return True if the value is allowed to be null
+	 */
+	public boolean isNullable() { return nullable; }
+
+	/**
+	 * Should this column have an index of its own? Index columns that rows
+	 * are often looked up by, so those lookups don't scan the whole table.
+	 * For lookups by several columns at once see
+	 * {@link org.bluemoondev.simplesql.SQLTable#addIndex(String...)
+	 * SQLTable.addIndex}
+	 *
+	 * @param  indexed True if the column should be indexed
+	 * @return         this
+	 */
+	public SQLColumn<T> setIndexed(boolean indexed) {
+		this.indexed = indexed;
+		return this;
+	}
+
+	/**
+	 * @return True if the column has an index of its own
+	 */
+	public boolean isIndexed() { return indexed; }
+
 	protected abstract String getType();
 
-	public String getDescriptor() { return getType() + defaultable() + nullable() + primable(); }
+	public String getDescriptor() { return getDescriptor(true); }
+
+	/**
+	 * @param  primable False to leave out the PRIMARY KEY constraint, for a
+	 *                  column that is part of a composite key declared by the
+	 *                  table
+	 * @return          The column definition used in CREATE and ALTER TABLE
+	 */
+	public String getDescriptor(boolean primable) {
+		return getType() + defaultable() + nullable() + (primable ? primable() : "");
+	}
 
 	protected String nullable() {
 		return nullable ? "" : " NOT NULL";
@@ -94,6 +139,42 @@ public abstract class SQLColumn<T> extends AbstractType<T> {
 		return primary ? " PRIMARY KEY" : "";
 	}
 
+	/**
+	 * @return The codec that binds and reads the values of this column, see
+	 *         {@link Codecs}
+	 */
+	@SuppressWarnings("unchecked")
+	public ColumnCodec<T> getCodec() {
+		ColumnCodec<T> c = codec;
+		if (c == null) {
+			c = (ColumnCodec<T>) Codecs.get(getClass());
+			if (c == null) c = new Codecs.ObjectCodec<>(getTypeClass());
+			codec = c;
+		}
+		return c;
+	}
+
+	/**
+	 * Binds a value of this column to a statement parameter with its codec.
+	 * A value of another type is left to the driver to convert
+	 *
+	 * @param  ps           The statement
+	 * @param  index        The parameter index
+	 * @param  value        The value to bind, may be null
+	 * @throws SQLException If the value could not be bound
+	 */
+	@SuppressWarnings("unchecked")
+	public void bind(PreparedStatement ps, int index, Object value) throws SQLException {
+		ColumnCodec<T> c = getCodec();
+		if (value == null) ps.setNull(index, c.getSqlType());
+		else if (c.getType().isInstance(value)) c.bind(ps, index, (T) value);
+		else ps.setObject(index, value);
+	}
+
+	/**
+	 * @deprecated Puts the value into the SQL text. Use {@link #eq(Object)}
+	 */
+	@Deprecated
 	public String is(Object value) {
 		if (!Checks.isValidObject(value)) return null;
 		return name + " = " + value.toString();
@@ -103,14 +184,84 @@ public abstract class SQLColumn<T> extends AbstractType<T> {
 		return name + " = ?";
 	}
 
+	/**
+	 * @deprecated Puts the value into the SQL text. Use {@link #lt(Object)}
+	 */
+	@Deprecated
 	public String isLessThan(long value) {
 		return name + " < " + value;
 	}
 
+	/**
+	 * @deprecated Puts the value into the SQL text. Use {@link #gt(Object)}
+	 */
+	@Deprecated
 	public String isGreaterThan(long value) {
 		return name + " > " + value;
 	}
 
+	/**
+	 * @param  value The value to compare to, or null to match null
+	 * @return       A condition matching this value, see {@link Condition}
+	 */
+	public Condition eq(T value) { return Condition.eq(this, value); }
+
+	/**
+	 * @param  value The value to compare to, or null to match anything but null
+	 * @return       A condition matching anything but this value
+	 */
+	public Condition ne(T value) { return Condition.ne(this, value); }
+
+	/**
+	 * @param  value The value to compare to
+	 * @return       A condition matching values less than this one
+	 */
+	public Condition lt(T value) { return Condition.lt(this, value); }
+
+	/**
+	 * @param  value The value to compare to
+	 * @return       A condition matching values less than or equal to this one
+	 */
+	public Condition le(T value) { return Condition.le(this, value); }
+
+	/**
+	 * @param  value The value to compare to
+	 * @return       A condition matching values greater than this one
+	 */
+	public Condition gt(T value) { return Condition.gt(this, value); }
+
+	/**
+	 * @param  value The value to compare to
+	 * @return       A condition matching values greater than or equal to this
+	 *               one
+	 */
+	public Condition ge(T value) { return Condition.ge(this, value); }
+
+	/**
+	 * @param  low  The smallest value to match
+	 * @param  high The largest value to match
+	 * @return      A condition matching values from low to high
+	 */
+	public Condition between(T low, T high) { return Condition.between(this, low, high); }
+
+	/**
+	 * @param  values The values to match
+	 * @return        A condition matching any of the values
+	 */
+	@SafeVarargs
+	@SuppressWarnings("varargs")
+	public final Condition in(T... values) { return Condition.in(this, values); }
+
+	/**
+	 * @return A condition matching rows where this column is null
+	 */
+	public Condition isNull() { return Condition.isNull(this); }
+
+	/**
+	 * @return A condition matching rows where this column is not null
+	 */
+	public Condition isNotNull() { return Condition.isNotNull(this); }
+
 	@Override
 	public String toString() {
 		return name;
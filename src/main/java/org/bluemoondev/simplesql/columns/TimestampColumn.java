@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.columns;
+
+import java.time.Instant;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> TimestampColumn.java<br>
+ * <p>
+ * Represents a column for points in time. The values are stored as
+ * milliseconds since the epoch in a BIGINT, so they sort and compare as
+ * numbers and read back without any parsing. Anything finer than a
+ * millisecond is dropped
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public class TimestampColumn extends SQLColumn<Instant> {
+
+	public TimestampColumn(String name, Instant defaultValue) {
+		super(name, defaultValue);
+	}
+
+	@Override
+	protected String getType() { return "BIGINT"; }
+
+	@Override
+	protected String defaultable() {
+		return defaultValue == null ? "" : " DEFAULT " + defaultValue.toEpochMilli();
+	}
+
+}
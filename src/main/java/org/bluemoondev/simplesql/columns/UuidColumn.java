@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.columns;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> UuidColumn.java<br>
+ * <p>
+ * Represents a column for UUIDs. They are stored as 16 raw bytes instead of
+ * their 36 character text form, which makes the column and any index on it
+ * less than half the size
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public class UuidColumn extends SQLColumn<UUID> {
+
+	public UuidColumn(String name, UUID defaultValue, boolean primary) {
+		super(name, defaultValue, primary);
+	}
+
+	public UuidColumn(String name, UUID defaultValue) {
+		super(name, defaultValue);
+	}
+
+	@Override
+	protected String getType() { return "BINARY(16)"; }
+
+	@Override
+	protected String defaultable() {
+		if (defaultValue == null) return "";
+		StringBuilder sb = new StringBuilder(" DEFAULT X'");
+		for (byte b : toBytes(defaultValue)) { sb.append(String.format("%02x", b)); }
+		return sb.append('\'').toString();
+	}
+
+	static byte[] toBytes(UUID uuid) {
+		return ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits())
+				.putLong(uuid.getLeastSignificantBits()).array();
+	}
+
+}
@@ -43,4 +43,15 @@ public class SSQLException extends Exception {
 	public SSQLException(String msg) {
 		super(msg);
 	}
+
+	/**
+	 * Constructs an instance of <code>SSQLException</code> with the specified
+	 * detail message and cause.
+	 * 
+	 * @param msg   the detail message.
+	 * @param cause the underlying error, usually an SQLException.
+	 */
+	public SSQLException(String msg, Throwable cause) {
+		super(msg, cause);
+	}
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.exceptions;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> UncheckedSSQLException.java<br>
+ * <p>
+ * Wraps an {@link SSQLException} where a checked exception can't be thrown,
+ * such as while iterating a {@link org.bluemoondev.simplesql.Cursor Cursor}
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public class UncheckedSSQLException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructs an instance of <code>UncheckedSSQLException</code> wrapping
+	 * the given exception.
+	 * 
+	 * @param cause the SimpleSQL error.
+	 */
+	public UncheckedSSQLException(SSQLException cause) {
+		super(cause.getMessage(), cause);
+	}
+
+	@Override
+	public synchronized SSQLException getCause() {
+		return (SSQLException) super.getCause();
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> LatencyHistogram.java<br>
+ * <p>
+ * Counts durations in buckets that grow with the duration, 8 to each power
+ * of two, so any percentile is known to within 12.5% while recording stays
+ * a single atomic increment with no locks and no allocation
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public final class LatencyHistogram {
+
+	/** Sub-buckets per power of two, as a number of bits */
+	private static final int	SUB_BITS	= 3;
+	private static final int	SUB_COUNT	= 1 << SUB_BITS;
+	private static final int	BUCKETS		= (64 - SUB_BITS + 1) * SUB_COUNT;
+
+	private final AtomicLongArray	counts;
+	private final LongAdder			total;
+	private final LongAdder			sum;
+	private final AtomicLong		max;
+
+	public LatencyHistogram() {
+		counts = new AtomicLongArray(BUCKETS);
+		total = new LongAdder();
+		sum = new LongAdder();
+		max = new AtomicLong();
+	}
+
+	/**
+	 * @param nanos A duration in nanoseconds
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) nanos = 0;
+		counts.incrementAndGet(bucket(nanos));
+		total.increment();
+		sum.add(nanos);
+		long m;
+		while (nanos > (m = max.get()) && !max.compareAndSet(m, nanos)) {}
+	}
+
+	/**
+	 * @return The number of durations recorded
+	 */
+	public long getCount() { return total.sum(); }
+
+	/**
+	 * @return The longest duration in nanoseconds
+	 */
+	public long getMax() { return max.get(); }
+
+	/**
+	 * @return The mean duration in nanoseconds
+	 */
+	public double getMean() {
+		long n = total.sum();
+		return n == 0 ? 0 : (double) sum.sum() / n;
+	}
+
+	/**
+	 * @param  quantile The share of durations that are at or below the result,
+	 *                  from 0 to 1. For example 0.99 for the 99th percentile
+	 * @return          The duration in nanoseconds, rounded up to the end of
+	 *                  its bucket, or 0 if nothing was recorded
+	 */
+	public long getPercentile(double quantile) {
+		long[] snapshot = new long[BUCKETS];
+		long n = 0;
+		for (int i = 0; i < BUCKETS; i++) { n += snapshot[i] = counts.get(i); }
+		if (n == 0) return 0;
+
+		long rank = Math.max(1, (long) Math.ceil(quantile * n));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) return Math.min(upperBound(i), max.get());
+		}
+		return max.get();
+	}
+
+	/**
+	 * @param  quantile See {@link #getPercentile(double)}
+	 * @param  unit     The unit to return
+	 * @return          The percentile in the given unit
+	 */
+	public long getPercentile(double quantile, TimeUnit unit) {
+		return unit.convert(getPercentile(quantile), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Forgets everything recorded so far
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) { counts.set(i, 0); }
+		total.reset();
+		sum.reset();
+		max.set(0);
+	}
+
+	static int bucket(long v) {
+		if (v < SUB_COUNT) return (int) v;
+		int exp = 63 - Long.numberOfLeadingZeros(v);
+		return ((exp - SUB_BITS + 1) << SUB_BITS) + (int) ((v >>> (exp - SUB_BITS)) & (SUB_COUNT - 1));
+	}
+
+	static long upperBound(int bucket) {
+		if (bucket < SUB_COUNT) return bucket;
+		int exp = (bucket >>> SUB_BITS) + SUB_BITS - 1;
+		long sub = bucket & (SUB_COUNT - 1);
+		if (exp >= 63 - 1 && sub == SUB_COUNT - 1) return Long.MAX_VALUE;
+		return ((SUB_COUNT + sub + 1) << (exp - SUB_BITS)) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d p50=%dus p99=%dus p999=%dus max=%dus", getCount(),
+				getPercentile(0.5, TimeUnit.MICROSECONDS), getPercentile(0.99, TimeUnit.MICROSECONDS),
+				getPercentile(0.999, TimeUnit.MICROSECONDS), TimeUnit.NANOSECONDS.toMicros(getMax()));
+	}
+
+}
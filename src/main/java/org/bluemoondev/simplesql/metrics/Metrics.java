@@ -0,0 +1,339 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.bluemoondev.blutilities.debug.Log;
+import org.bluemoondev.simplesql.SimpleSQL;
+import org.bluemoondev.simplesql.exceptions.SSQLException;
+import org.bluemoondev.simplesql.pool.ConnectionPool;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> Metrics.java<br>
+ * <p>
+ * Times every statement SimpleSQL runs and keeps latency histograms, row
+ * counts and error counts per table and {@link OperationType}, along with
+ * how long callers waited for a pooled connection. Recording costs two clock
+ * reads and a few atomic increments, so it is on by default. The numbers can
+ * be read here, through JMX after {@link #enableJmx()}, or handed on to
+ * another monitoring system with a {@link MetricsListener}. Statements slower
+ * than the {@link #setSlowQueryThreshold(long) slow query threshold} are
+ * logged with their SQL
+ * </p>
+ *
+ * <pre>
+ * Metrics metrics = SimpleSQL.getMetrics().setSlowQueryThreshold(250);
+ * long p99 = metrics.getStats("players", OperationType.READ).getP99Micros();
+ * </pre>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public final class Metrics {
+
+	private static final Log LOG = Log.get("SimpleSQL", Metrics.class);
+
+	private static final String DOMAIN = "org.bluemoondev.simplesql";
+
+	/** Handed out by {@link #start()} while metrics are off */
+	private static final long OFF = Long.MIN_VALUE;
+
+	private static final OperationType[] TYPES = OperationType.values();
+
+	private final Map<String, OperationStats[]>	tables;
+	private final LatencyHistogram				poolWait;
+	private final List<MetricsListener>			listeners;
+
+	private volatile boolean	enabled;
+	private volatile long		slowQueryNanos;
+	private volatile boolean	jmx;
+
+	public Metrics() {
+		tables = new ConcurrentHashMap<>();
+		poolWait = new LatencyHistogram();
+		listeners = new CopyOnWriteArrayList<>();
+		enabled = true;
+	}
+
+	/**
+	 * Turns recording on or off. Defaults to on
+	 *
+	 * @param  enabled True to record
+	 * @return         this
+	 */
+	public Metrics setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		return this;
+	}
+
+	public boolean isEnabled() { return enabled; }
+
+	/**
+	 * Logs every statement that takes at least this long, along with its SQL.
+	 * Use 0 to turn the slow query log off, which is the default
+	 *
+	 * @param  millis The threshold in milliseconds
+	 * @return        this
+	 */
+	public Metrics setSlowQueryThreshold(long millis) {
+		if (millis < 0) throw new IllegalArgumentException("The slow query threshold must not be negative");
+		slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+		return this;
+	}
+
+	/**
+	 * @return The slow query threshold in milliseconds, or 0 if it is off
+	 */
+	public long getSlowQueryThreshold() { return TimeUnit.NANOSECONDS.toMillis(slowQueryNanos); }
+
+	/**
+	 * @param  listener Receives every measurement from now on
+	 * @return          this
+	 */
+	public Metrics addListener(MetricsListener listener) {
+		if (listener == null) throw new IllegalArgumentException("The listener cannot be null");
+		listeners.add(listener);
+		return this;
+	}
+
+	/**
+	 * @param  listener A listener added before
+	 * @return          this
+	 */
+	public Metrics removeListener(MetricsListener listener) {
+		listeners.remove(listener);
+		return this;
+	}
+
+	/**
+	 * @param  table The name of the table
+	 * @param  type  The kind of operation
+	 * @return       The stats, or null if nothing has run on the table yet
+	 */
+	public OperationStats getStats(String table, OperationType type) {
+		OperationStats[] stats = tables.get(table);
+		return stats == null ? null : stats[type.ordinal()];
+	}
+
+	/**
+	 * @return The names of the tables that have stats
+	 */
+	public Set<String> getTables() { return Collections.unmodifiableSet(tables.keySet()); }
+
+	/**
+	 * @return How long callers waited for a pooled connection
+	 */
+	public LatencyHistogram getPoolWait() { return poolWait; }
+
+	/**
+	 * Forgets everything recorded so far
+	 */
+	public void reset() {
+		for (OperationStats[] stats : tables.values()) {
+			for (OperationStats s : stats) { s.reset(); }
+		}
+		poolWait.reset();
+	}
+
+	/**
+	 * Registers the stats of every table, and of tables added later, as
+	 * {@link OperationStatsMXBean}s named
+	 * <code>org.bluemoondev.simplesql:type=Operation,table=...,operation=...</code>,
+	 * and the pool as a {@link PoolStatsMXBean} named
+	 * <code>org.bluemoondev.simplesql:type=Pool</code>
+	 */
+	public synchronized void enableJmx() {
+		if (jmx) return;
+		jmx = true;
+		register(new PoolStats(this), DOMAIN + ":type=Pool");
+		for (OperationStats[] stats : tables.values()) { register(stats); }
+	}
+
+	/**
+	 * Unregisters everything {@link #enableJmx()} registered
+	 */
+	public synchronized void disableJmx() {
+		if (!jmx) return;
+		jmx = false;
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			for (ObjectName name : server.queryNames(new ObjectName(DOMAIN + ":*"), null)) { server.unregisterMBean(name); }
+		} catch (JMException ex) {
+			LOG.error("Failed to unregister the SimpleSQL MBeans", ex);
+		}
+	}
+
+	/**
+	 * Called by SimpleSQL before a statement runs
+	 *
+	 * @return The value to hand to {@link #record(String, OperationType, String, long, long, boolean)
+	 *         record}
+	 */
+	public long start() {
+		return enabled ? System.nanoTime() : OFF;
+	}
+
+	/**
+	 * Called by SimpleSQL after a statement ran
+	 *
+	 * @param table  The name of the table
+	 * @param type   The kind of statement
+	 * @param sql    The SQL that was run
+	 * @param start  What {@link #start()} returned
+	 * @param rows   The number of rows read or changed
+	 * @param failed True if the statement threw
+	 */
+	public void record(String table, OperationType type, String sql, long start, long rows, boolean failed) {
+		if (start == OFF) return;
+		long nanos = System.nanoTime() - start;
+		stats(table)[type.ordinal()].record(nanos, rows, failed);
+
+		long slow = slowQueryNanos;
+		if (slow > 0 && nanos >= slow)
+			LOG.info(String.format(Locale.ROOT, "Slow %s on %s took %.1fms (%d rows): %s", type, table, nanos / 1e6,
+					rows, sql));
+		for (MetricsListener l : listeners) { l.onOperation(table, type, sql, nanos, rows, failed); }
+	}
+
+	/**
+	 * Called by SimpleSQL after a connection was taken from the pool
+	 *
+	 * @param start What {@link #start()} returned before asking the pool
+	 */
+	public void recordPoolWait(long start) {
+		if (start == OFF) return;
+		long nanos = System.nanoTime() - start;
+		poolWait.record(nanos);
+		for (MetricsListener l : listeners) { l.onPoolWait(nanos); }
+	}
+
+	private OperationStats[] stats(String table) {
+		OperationStats[] stats = tables.get(table);
+		if (stats != null) return stats;
+
+		OperationStats[] created = new OperationStats[TYPES.length];
+		for (OperationType type : TYPES) { created[type.ordinal()] = new OperationStats(table, type); }
+		stats = tables.putIfAbsent(table, created);
+		if (stats != null) return stats;
+		if (jmx) register(created);
+		return created;
+	}
+
+	private synchronized void register(OperationStats[] stats) {
+		if (!jmx) return;
+		for (OperationStats s : stats) {
+			register(s, DOMAIN + ":type=Operation,table=" + s.getTable() + ",operation="
+						+ s.getType().name().toLowerCase(Locale.ROOT));
+		}
+	}
+
+	private static void register(Object bean, String name) {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			ObjectName objectName = new ObjectName(name);
+			if (!server.isRegistered(objectName)) server.registerMBean(bean, objectName);
+		} catch (JMException ex) {
+			LOG.error("Failed to register the MBean " + name, ex);
+		}
+	}
+
+	/**
+	 * Reads the pool's gauges at the time they are asked for
+	 */
+	private static final class PoolStats implements PoolStatsMXBean {
+
+		private final Metrics metrics;
+
+		private PoolStats(Metrics metrics) {
+			this.metrics = metrics;
+		}
+
+		private ConnectionPool pool() {
+			try {
+				return SimpleSQL.getDatabase().getPool();
+			} catch (SSQLException | SQLException ex) {
+				return null;
+			}
+		}
+
+		@Override
+		public int getOpenConnections() {
+			ConnectionPool p = pool();
+			return p == null ? -1 : p.getOpenConnections();
+		}
+
+		@Override
+		public int getIdleConnections() {
+			ConnectionPool p = pool();
+			return p == null ? -1 : p.getIdleConnections();
+		}
+
+		@Override
+		public int getActiveConnections() {
+			ConnectionPool p = pool();
+			return p == null ? -1 : p.getActiveConnections();
+		}
+
+		@Override
+		public int getWaitingThreads() {
+			ConnectionPool p = pool();
+			return p == null ? -1 : p.getWaitingThreads();
+		}
+
+		@Override
+		public long getWaitCount() { return metrics.poolWait.getCount(); }
+
+		@Override
+		public double getWaitMeanMicros() { return metrics.poolWait.getMean() / 1000; }
+
+		@Override
+		public long getWaitMaxMicros() { return TimeUnit.NANOSECONDS.toMicros(metrics.poolWait.getMax()); }
+
+		@Override
+		public long getWaitP50Micros() { return metrics.poolWait.getPercentile(0.5, TimeUnit.MICROSECONDS); }
+
+		@Override
+		public long getWaitP99Micros() { return metrics.poolWait.getPercentile(0.99, TimeUnit.MICROSECONDS); }
+
+		@Override
+		public long getWaitP999Micros() { return metrics.poolWait.getPercentile(0.999, TimeUnit.MICROSECONDS); }
+
+		@Override
+		public long getStatementCacheHits() {
+			ConnectionPool p = pool();
+			return p == null ? -1 : p.getStatementCacheHits();
+		}
+
+		@Override
+		public long getStatementCacheMisses() {
+			ConnectionPool p = pool();
+			return p == null ? -1 : p.getStatementCacheMisses();
+		}
+	}
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.metrics;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> MetricsListener.java<br>
+ * <p>
+ * Receives every measurement {@link Metrics} takes, to hand them on to a
+ * monitoring system. Listeners are called on the thread that ran the
+ * statement, right after it finished, so they must be quick and must not
+ * throw
+ * </p>
+ *
+ * <pre>
+ * SimpleSQL.getMetrics().addListener((table, type, sql, nanos, rows, failed) -&gt; timer(table, type).record(nanos));
+ * </pre>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+@FunctionalInterface
+public interface MetricsListener {
+
+	/**
+	 * Called after every statement
+	 *
+	 * @param table  The name of the table
+	 * @param type   The kind of statement
+	 * @param sql    The SQL that was run
+	 * @param nanos  How long it took in nanoseconds
+	 * @param rows   The number of rows read or changed
+	 * @param failed True if it threw
+	 */
+	public void onOperation(String table, OperationType type, String sql, long nanos, long rows, boolean failed);
+
+	/**
+	 * Called after a connection was taken from the pool
+	 *
+	 * @param nanos How long the caller waited for the connection in
+	 *              nanoseconds
+	 */
+	public default void onPoolWait(long nanos) {}
+
+}
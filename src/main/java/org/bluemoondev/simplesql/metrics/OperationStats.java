@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> OperationStats.java<br>
+ * <p>
+ * The latency, row and error counts of one kind of operation on one table,
+ * see {@link Metrics#getStats(String, OperationType)}
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public final class OperationStats implements OperationStatsMXBean {
+
+	private final String			table;
+	private final OperationType		type;
+	private final LatencyHistogram	latency;
+	private final LongAdder			rows;
+	private final LongAdder			errors;
+
+	OperationStats(String table, OperationType type) {
+		this.table = table;
+		this.type = type;
+		latency = new LatencyHistogram();
+		rows = new LongAdder();
+		errors = new LongAdder();
+	}
+
+	void record(long nanos, long rows, boolean failed) {
+		latency.record(nanos);
+		if (rows > 0) this.rows.add(rows);
+		if (failed) errors.increment();
+	}
+
+	void reset() {
+		latency.reset();
+		rows.reset();
+		errors.reset();
+	}
+
+	public String getTable() { return table; }
+
+	public OperationType getType() { return type; }
+
+	/**
+	 * @return How long each operation took
+	 */
+	public LatencyHistogram getLatency() { return latency; }
+
+	/**
+	 * @return The number of operations, including failed ones
+	 */
+	@Override
+	public long getCount() { return latency.getCount(); }
+
+	/**
+	 * @return The number of operations that failed
+	 */
+	@Override
+	public long getErrors() { return errors.sum(); }
+
+	/**
+	 * @return The number of rows read or changed
+	 */
+	@Override
+	public long getRows() { return rows.sum(); }
+
+	@Override
+	public double getMeanMicros() { return latency.getMean() / 1000; }
+
+	@Override
+	public long getMaxMicros() { return TimeUnit.NANOSECONDS.toMicros(latency.getMax()); }
+
+	@Override
+	public long getP50Micros() { return latency.getPercentile(0.5, TimeUnit.MICROSECONDS); }
+
+	@Override
+	public long getP99Micros() { return latency.getPercentile(0.99, TimeUnit.MICROSECONDS); }
+
+	@Override
+	public long getP999Micros() { return latency.getPercentile(0.999, TimeUnit.MICROSECONDS); }
+
+	@Override
+	public String toString() {
+		return table + " " + type + ": " + latency + " rows=" + getRows() + " errors=" + getErrors();
+	}
+
+}
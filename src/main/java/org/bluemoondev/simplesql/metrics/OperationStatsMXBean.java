@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.metrics;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> OperationStatsMXBean.java<br>
+ * <p>
+ * The JMX view of an {@link OperationStats}, registered by
+ * {@link Metrics#enableJmx()}. Times are in microseconds
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public interface OperationStatsMXBean {
+
+	public long getCount();
+
+	public long getErrors();
+
+	public long getRows();
+
+	public double getMeanMicros();
+
+	public long getMaxMicros();
+
+	public long getP50Micros();
+
+	public long getP99Micros();
+
+	public long getP999Micros();
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.metrics;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> OperationType.java<br>
+ * <p>
+ * The kinds of database work {@link Metrics} keeps apart for each table
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public enum OperationType {
+	/** Queries that read values or rows */
+	READ,
+	/** Inserts, updates, deletes and batches */
+	WRITE,
+	/** Checks whether a row exists */
+	EXISTS,
+	/** Creating a table or bringing its columns and indexes up to date */
+	DDL
+}
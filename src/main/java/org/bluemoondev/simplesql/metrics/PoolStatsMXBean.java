@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.metrics;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> PoolStatsMXBean.java<br>
+ * <p>
+ * The JMX view of the connection pool, registered by
+ * {@link Metrics#enableJmx()}. Times are in microseconds. A gauge reads -1
+ * while there is no pool
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public interface PoolStatsMXBean {
+
+	public int getOpenConnections();
+
+	public int getIdleConnections();
+
+	public int getActiveConnections();
+
+	public int getWaitingThreads();
+
+	public long getWaitCount();
+
+	public double getWaitMeanMicros();
+
+	public long getWaitMaxMicros();
+
+	public long getWaitP50Micros();
+
+	public long getWaitP99Micros();
+
+	public long getWaitP999Micros();
+
+	public long getStatementCacheHits();
+
+	public long getStatementCacheMisses();
+
+}
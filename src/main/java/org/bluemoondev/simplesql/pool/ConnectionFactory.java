@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.pool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> ConnectionFactory.java<br>
+ * <p>
+ * Opens new physical connections for a {@link ConnectionPool}
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+@FunctionalInterface
+public interface ConnectionFactory {
+
+	/**
+	 * Opens a new connection to the database
+	 *
+	 * @return              The new connection
+	 * @throws SQLException If the connection could not be established
+	 */
+	public Connection create() throws SQLException;
+
+}
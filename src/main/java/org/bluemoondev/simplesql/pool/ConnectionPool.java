@@ -0,0 +1,347 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bluemoondev.blutilities.debug.Log;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> ConnectionPool.java<br>
+ * <p>
+ * A bounded pool of JDBC connections. Connections handed out by
+ * {@link #borrow()} go back to the pool when they are closed, so they should
+ * always be used in a try-with-resources block. Each connection keeps its own
+ * cache of prepared statements, see {@link PoolConfig#setStatementCacheSize(int)}
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public class ConnectionPool {
+
+	private static final Log LOG = Log.get("SimpleSQL", ConnectionPool.class);
+
+	private final ConnectionFactory	factory;
+	private final PoolConfig		config;
+
+	private final Semaphore								permits;
+	private final LinkedBlockingDeque<PooledConnection>	idle;
+	private final AtomicInteger							open;
+	private final ScheduledExecutorService				housekeeper;
+	private final AtomicLong							statementHits, statementMisses, statementEvictions;
+
+	private volatile boolean closed;
+
+	/**
+	 * Creates a pool and opens its minimum number of connections
+	 *
+	 * @param  factory      Opens new physical connections
+	 * @param  config       The pool settings. Later changes to this object do
+	 *                      not affect the pool
+	 * @throws SQLException If one of the initial connections could not be opened
+	 */
+	public ConnectionPool(ConnectionFactory factory, PoolConfig config) throws SQLException {
+		this.factory = factory;
+		this.config = config.copy();
+		permits = new Semaphore(this.config.getMaxSize(), true);
+		idle = new LinkedBlockingDeque<>();
+		open = new AtomicInteger();
+		statementHits = new AtomicLong();
+		statementMisses = new AtomicLong();
+		statementEvictions = new AtomicLong();
+
+		for (int i = 0; i < this.config.getMinSize(); i++) { idle.offerLast(open()); }
+
+		housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "SimpleSQL-pool-housekeeper");
+			t.setDaemon(true);
+			return t;
+		});
+		long interval = this.config.getHousekeepingInterval();
+		housekeeper.scheduleWithFixedDelay(this::housekeep, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Borrows a connection, waiting up to the configured borrow timeout for one
+	 * to become free. Closing the returned connection gives it back to the pool
+	 *
+	 * @return              A connection that is only used by the caller until it
+	 *                      is closed
+	 * @throws SQLException If the pool is closed, the wait timed out or a new
+	 *                      connection could not be opened
+	 */
+	public Connection borrow() throws SQLException {
+		if (closed) throw new SQLException("The connection pool has been closed");
+		try {
+			if (!permits.tryAcquire(config.getBorrowTimeout(), TimeUnit.MILLISECONDS))
+				throw new SQLTimeoutException("Timed out after " + config.getBorrowTimeout()
+												+ "ms waiting for a connection (" + open.get() + " open, max "
+												+ config.getMaxSize() + ")");
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a connection", ex);
+		}
+
+		try {
+			PooledConnection pc;
+			while ((pc = idle.pollFirst()) != null) {
+				if (isUsable(pc)) return pc.lease();
+				discard(pc);
+			}
+			return open().lease();
+		} catch (SQLException | RuntimeException ex) {
+			permits.release();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Closes every idle connection and stops the pool. Connections that are
+	 * still borrowed are closed as soon as they are returned
+	 */
+	public void close() {
+		closed = true;
+		housekeeper.shutdownNow();
+		PooledConnection pc;
+		while ((pc = idle.pollFirst()) != null) { discard(pc); }
+	}
+
+	/**
+	 * @return True if {@link #close()} has been called
+	 */
+	public boolean isClosed() { return closed; }
+
+	/**
+	 * @return The number of physical connections currently open
+	 */
+	public int getOpenConnections() { return open.get(); }
+
+	/**
+	 * @return The number of open connections waiting to be borrowed
+	 */
+	public int getIdleConnections() { return idle.size(); }
+
+	/**
+	 * @return The number of connections currently borrowed
+	 */
+	public int getActiveConnections() { return config.getMaxSize() - permits.availablePermits(); }
+
+	/**
+	 * @return The number of threads waiting for a connection
+	 */
+	public int getWaitingThreads() { return permits.getQueueLength(); }
+
+	/**
+	 * @return The number of prepared statements served from a connection's
+	 *         statement cache
+	 */
+	public long getStatementCacheHits() { return statementHits.get(); }
+
+	/**
+	 * @return The number of prepared statements that had to be prepared by the
+	 *         driver
+	 */
+	public long getStatementCacheMisses() { return statementMisses.get(); }
+
+	/**
+	 * @return The number of prepared statements pushed out of a full statement
+	 *         cache
+	 */
+	public long getStatementCacheEvictions() { return statementEvictions.get(); }
+
+	private PooledConnection open() throws SQLException {
+		Connection raw = factory.create();
+		open.incrementAndGet();
+		return new PooledConnection(raw);
+	}
+
+	private boolean isUsable(PooledConnection pc) {
+		long now = System.currentTimeMillis();
+		if (pc.isExpired(now)) return false;
+		if (now - pc.lastUsed < config.getValidationInterval()) return true;
+		try {
+			return pc.raw.isValid(config.getValidationTimeout());
+		} catch (SQLException ex) {
+			return false;
+		}
+	}
+
+	private void release(PooledConnection pc) {
+		try {
+			if (closed || pc.isExpired(System.currentTimeMillis()) || !pc.reset()) discard(pc);
+			else idle.offerFirst(pc);
+		} finally {
+			permits.release();
+		}
+	}
+
+	private void discard(PooledConnection pc) {
+		open.decrementAndGet();
+		try {
+			if (pc.statements != null) pc.statements.clear();
+			pc.raw.close();
+		} catch (SQLException ex) {
+			LOG.error("Failed to close a pooled connection", ex);
+		}
+	}
+
+	private void housekeep() {
+		long now = System.currentTimeMillis();
+		for (PooledConnection pc : idle) {
+			boolean idleTooLong = open.get() > config.getMinSize() && now - pc.lastUsed > config.getIdleTimeout();
+			if ((pc.isExpired(now) || idleTooLong) && idle.remove(pc))
+				discard(pc);
+		}
+
+		try {
+			while (!closed && open.get() < config.getMinSize()) { idle.offerLast(open()); }
+		} catch (SQLException ex) {
+			LOG.error("Failed to top the connection pool back up to its minimum size", ex);
+		}
+	}
+
+	/**
+	 * A physical connection along with the bookkeeping the pool needs for it
+	 */
+	private final class PooledConnection {
+
+		private final Connection		raw;
+		private final StatementCache	statements;
+		private final long				createdAt;
+		private volatile long			lastUsed;
+
+		private boolean	autoCommitDirty;
+		private boolean	isolationDirty;
+		private boolean	readOnlyDirty;
+		private int		defaultIsolation;
+
+		private PooledConnection(Connection raw) throws SQLException {
+			this.raw = raw;
+			statements = config.getStatementCacheSize() == 0	? null
+																: new StatementCache(raw, config.getStatementCacheSize(),
+																		statementHits, statementMisses,
+																		statementEvictions);
+			createdAt = lastUsed = System.currentTimeMillis();
+			defaultIsolation = raw.getTransactionIsolation();
+		}
+
+		private boolean isExpired(long now) {
+			return config.getMaxLifetime() > 0 && now - createdAt > config.getMaxLifetime();
+		}
+
+		private Connection lease() {
+			return (Connection) Proxy.newProxyInstance(	ConnectionPool.class.getClassLoader(),
+														new Class<?>[] { Connection.class }, new Lease(this));
+		}
+
+		/**
+		 * Undoes any session changes made while the connection was borrowed
+		 *
+		 * @return False if the connection is no longer fit to be reused
+		 */
+		private boolean reset() {
+			lastUsed = System.currentTimeMillis();
+			try {
+				if (raw.isClosed()) return false;
+				if (autoCommitDirty && !raw.getAutoCommit()) {
+					raw.rollback();
+					raw.setAutoCommit(true);
+				}
+				if (isolationDirty) raw.setTransactionIsolation(defaultIsolation);
+				if (readOnlyDirty) raw.setReadOnly(false);
+				autoCommitDirty = isolationDirty = readOnlyDirty = false;
+				return true;
+			} catch (SQLException ex) {
+				LOG.error("Failed to reset a pooled connection, it will be closed", ex);
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Handles calls on a borrowed connection. <code>close()</code> hands the
+	 * connection back to the pool instead of closing it, after which the
+	 * borrower can no longer use it
+	 */
+	private final class Lease implements InvocationHandler {
+
+		private PooledConnection target;
+
+		private Lease(PooledConnection target) {
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+				case "close":
+					if (target != null) {
+						PooledConnection pc = target;
+						target = null;
+						release(pc);
+					}
+					return null;
+				case "isClosed":
+					return target == null || target.raw.isClosed();
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "Pooled" + (target == null ? "[returned]" : target.raw.toString());
+				case "setAutoCommit":
+					if (target != null) target.autoCommitDirty = true;
+					break;
+				case "setTransactionIsolation":
+					if (target != null) target.isolationDirty = true;
+					break;
+				case "setReadOnly":
+					if (target != null) target.readOnlyDirty = true;
+					break;
+				case "prepareStatement":
+					if (target != null && target.statements != null && args.length == 1)
+						return target.statements.prepare((String) args[0], (Connection) proxy);
+					break;
+				default:
+					break;
+			}
+
+			if (target == null) {
+				if (method.getName().equals("isValid")) return false;
+				throw new SQLException("This connection has already been returned to the pool");
+			}
+
+			try {
+				return method.invoke(target.raw, args);
+			} catch (InvocationTargetException ex) {
+				throw ex.getCause();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.pool;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> PoolConfig.java<br>
+ * <p>
+ * The settings used by a {@link ConnectionPool}. All times are in
+ * milliseconds unless stated otherwise
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public class PoolConfig {
+
+	private int		minSize					= 1;
+	private int		maxSize					= 10;
+	private long	borrowTimeout			= 30_000L;
+	private long	idleTimeout				= 600_000L;
+	private long	maxLifetime				= 1_800_000L;
+	private long	validationInterval		= 500L;
+	private int		validationTimeout		= 5;
+	private long	housekeepingInterval	= 30_000L;
+	private int		statementCacheSize		= 64;
+	private int		fetchSize				= 1000;
+
+	/**
+	 * Creates a pool configuration with the default settings
+	 */
+	public PoolConfig() {}
+
+	private PoolConfig(PoolConfig other) {
+		minSize = other.minSize;
+		maxSize = other.maxSize;
+		borrowTimeout = other.borrowTimeout;
+		idleTimeout = other.idleTimeout;
+		maxLifetime = other.maxLifetime;
+		validationInterval = other.validationInterval;
+		validationTimeout = other.validationTimeout;
+		housekeepingInterval = other.housekeepingInterval;
+		statementCacheSize = other.statementCacheSize;
+		fetchSize = other.fetchSize;
+	}
+
+	/**
+	 * The number of connections the pool keeps open even when idle. Defaults to
+	 * 1
+	 *
+	 * @param  minSize The minimum number of open connections
+	 * @return         this
+	 */
+	public PoolConfig setMinSize(int minSize) {
+		if (minSize < 0) throw new IllegalArgumentException("minSize must not be negative");
+		this.minSize = minSize;
+		return this;
+	}
+
+	/**
+	 * The maximum number of connections the pool will open. Defaults to 10
+	 *
+	 * @param  maxSize The maximum number of open connections
+	 * @return         this
+	 */
+	public PoolConfig setMaxSize(int maxSize) {
+		if (maxSize < 1) throw new IllegalArgumentException("maxSize must be at least 1");
+		this.maxSize = maxSize;
+		return this;
+	}
+
+	/**
+	 * How long a caller waits for a free connection before giving up. Defaults
+	 * to 30 seconds
+	 *
+	 * @param  borrowTimeout The borrow timeout
+	 * @return               this
+	 */
+	public PoolConfig setBorrowTimeout(long borrowTimeout) {
+		this.borrowTimeout = borrowTimeout;
+		return this;
+	}
+
+	/**
+	 * How long a connection may sit unused before it is closed, as long as the
+	 * pool stays above its minimum size. Defaults to 10 minutes
+	 *
+	 * @param  idleTimeout The idle timeout
+	 * @return             this
+	 */
+	public PoolConfig setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+		return this;
+	}
+
+	/**
+	 * The maximum age of a connection. Older connections are closed when they
+	 * are next returned or found idle. Defaults to 30 minutes
+	 *
+	 * @param  maxLifetime The maximum connection lifetime
+	 * @return             this
+	 */
+	public PoolConfig setMaxLifetime(long maxLifetime) {
+		this.maxLifetime = maxLifetime;
+		return this;
+	}
+
+	/**
+	 * Connections that have been idle for longer than this are validated with
+	 * {@link java.sql.Connection#isValid(int) isValid} before being handed
+	 * out. Use 0 to validate on every borrow. Defaults to 500 milliseconds
+	 *
+	 * @param  validationInterval The validation interval
+	 * @return                    this
+	 */
+	public PoolConfig setValidationInterval(long validationInterval) {
+		this.validationInterval = validationInterval;
+		return this;
+	}
+
+	/**
+	 * How long, <strong>in seconds</strong>, a validation check may take.
+	 * Defaults to 5
+	 *
+	 * @param  validationTimeout The validation timeout in seconds
+	 * @return                   this
+	 */
+	public PoolConfig setValidationTimeout(int validationTimeout) {
+		this.validationTimeout = validationTimeout;
+		return this;
+	}
+
+	/**
+	 * How often the pool evicts idle and expired connections and tops itself
+	 * back up to the minimum size. Defaults to 30 seconds
+	 *
+	 * @param  housekeepingInterval The housekeeping interval
+	 * @return                      this
+	 */
+	public PoolConfig setHousekeepingInterval(long housekeepingInterval) {
+		if (housekeepingInterval <= 0) throw new IllegalArgumentException("housekeepingInterval must be positive");
+		this.housekeepingInterval = housekeepingInterval;
+		return this;
+	}
+
+	/**
+	 * The number of prepared statements each connection keeps ready for
+	 * reuse, keyed by their SQL. Use 0 to turn statement caching off. Defaults
+	 * to 64
+	 *
+	 * @param  statementCacheSize The statement cache size per connection
+	 * @return                    this
+	 */
+	public PoolConfig setStatementCacheSize(int statementCacheSize) {
+		if (statementCacheSize < 0) throw new IllegalArgumentException("statementCacheSize must not be negative");
+		this.statementCacheSize = statementCacheSize;
+		return this;
+	}
+
+	/**
+	 * How many rows a {@link org.bluemoondev.simplesql.Cursor Cursor} fetches
+	 * from the database at a time. Larger values mean fewer round trips but
+	 * more rows held in memory. Defaults to 1000
+	 *
+	 * @param  fetchSize The number of rows per fetch
+	 * @return           this
+	 */
+	public PoolConfig setFetchSize(int fetchSize) {
+		if (fetchSize < 1) throw new IllegalArgumentException("fetchSize must be at least 1");
+		this.fetchSize = fetchSize;
+		return this;
+	}
+
+	public int getMinSize() { return minSize; }
+
+	public int getMaxSize() { return maxSize; }
+
+	public long getBorrowTimeout() { return borrowTimeout; }
+
+	public long getIdleTimeout() { return idleTimeout; }
+
+	public long getMaxLifetime() { return maxLifetime; }
+
+	public long getValidationInterval() { return validationInterval; }
+
+	public int getValidationTimeout() { return validationTimeout; }
+
+	public long getHousekeepingInterval() { return housekeepingInterval; }
+
+	public int getStatementCacheSize() { return statementCacheSize; }
+
+	public int getFetchSize() { return fetchSize; }
+
+	/**
+	 * @return A copy of this configuration, so that a running pool is not
+	 *         affected by later changes
+	 */
+	PoolConfig copy() {
+		if (minSize > maxSize) throw new IllegalArgumentException("minSize must not be greater than maxSize");
+		return new PoolConfig(this);
+	}
+
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bluemoondev.blutilities.debug.Log;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> StatementCache.java<br>
+ * <p>
+ * A bounded LRU cache of prepared statements for a single pooled connection,
+ * keyed by their SQL text. Statements handed out by the cache go back into it
+ * when they are closed, with their parameters cleared
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+final class StatementCache {
+
+	private static final Log LOG = Log.get("SimpleSQL", StatementCache.class);
+
+	private final Connection						raw;
+	private final Map<String, CachedStatement>	statements;
+	private final AtomicLong						hits, misses, evictions;
+
+	/**
+	 * @param raw       The physical connection statements are prepared on
+	 * @param maxSize   The maximum number of statements to keep
+	 * @param hits      Counts statements served from the cache
+	 * @param misses    Counts statements that had to be prepared
+	 * @param evictions Counts statements pushed out of the cache
+	 */
+	StatementCache(Connection raw, int maxSize, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+		this.raw = raw;
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+		statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+				if (size() <= maxSize) return false;
+				evictions.incrementAndGet();
+				eldest.getValue().evict();
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Gets a prepared statement for the SQL, reusing a cached one when it is
+	 * not already in use
+	 *
+	 * @param  sql          The SQL to prepare
+	 * @param  owner        The connection the statement should report as its
+	 *                      own
+	 * @return              The prepared statement
+	 * @throws SQLException If the statement could not be prepared
+	 */
+	PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+		CachedStatement cs = statements.get(sql);
+		if (cs != null && !cs.inUse) {
+			hits.incrementAndGet();
+			return cs.lease(owner);
+		}
+
+		misses.incrementAndGet();
+		PreparedStatement ps = raw.prepareStatement(sql);
+		// The cached copy is busy (e.g. a nested query), so this one is a one-off
+		if (cs != null) return ps;
+
+		cs = new CachedStatement(sql, ps);
+		statements.put(sql, cs);
+		return cs.lease(owner);
+	}
+
+	/**
+	 * @return The number of statements currently cached
+	 */
+	int size() {
+		return statements.size();
+	}
+
+	/**
+	 * Closes every cached statement
+	 */
+	void clear() {
+		for (CachedStatement cs : statements.values()) { cs.evict(); }
+		statements.clear();
+	}
+
+	private final class CachedStatement {
+
+		private final String			sql;
+		private final PreparedStatement	ps;
+
+		private boolean	inUse;
+		private boolean	evicted;
+		private boolean	dirty;
+		private boolean	batched;
+		/** The last result set handed to the borrower */
+		private ResultSet results;
+
+		private CachedStatement(String sql, PreparedStatement ps) {
+			this.sql = sql;
+			this.ps = ps;
+		}
+
+		private PreparedStatement lease(Connection owner) {
+			inUse = true;
+			return (PreparedStatement) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, new Handle(owner));
+		}
+
+		private void evict() {
+			evicted = true;
+			if (!inUse) close();
+		}
+
+		/**
+		 * Called when the borrower closes its handle
+		 */
+		private void giveBack() {
+			inUse = false;
+			if (evicted) {
+				close();
+				return;
+			}
+
+			try {
+				if (dirty) throw new SQLException("Statement settings were changed");
+				// A result set that wasn't read to the end keeps its locks, on
+				// SQLite until the statement runs again
+				if (results != null) results.close();
+				results = null;
+				ResultSet open = ps.getResultSet();
+				if (open != null) open.close();
+				ps.clearParameters();
+				if (batched) ps.clearBatch();
+				batched = false;
+			} catch (SQLException ex) {
+				// Settings we can't safely undo, or a broken statement. Drop it
+				statements.remove(sql, this);
+				evicted = true;
+				close();
+			}
+		}
+
+		private void close() {
+			try {
+				ps.close();
+			} catch (SQLException ex) {
+				LOG.error("Failed to close a cached statement", ex);
+			}
+		}
+
+		private final class Handle implements InvocationHandler {
+
+			private final Connection	owner;
+			private boolean				closed;
+
+			private Handle(Connection owner) {
+				this.owner = owner;
+			}
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				switch (method.getName()) {
+					case "close":
+						if (!closed) {
+							closed = true;
+							giveBack();
+						}
+						return null;
+					case "isClosed":
+						return closed || ps.isClosed();
+					case "getConnection":
+						return owner;
+					case "equals":
+						return proxy == args[0];
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "toString":
+						return "Cached" + ps.toString();
+					case "addBatch":
+						batched = true;
+						break;
+					case "setFetchSize":
+					case "setMaxRows":
+					case "setLargeMaxRows":
+					case "setQueryTimeout":
+					case "setFetchDirection":
+					case "setMaxFieldSize":
+					case "setEscapeProcessing":
+					case "setPoolable":
+					case "setCursorName":
+					case "closeOnCompletion":
+						dirty = true;
+						break;
+					default:
+						break;
+				}
+
+				if (closed) throw new SQLException("This statement has already been closed");
+				try {
+					Object result = method.invoke(ps, args);
+					if (result instanceof ResultSet) results = (ResultSet) result;
+					return result;
+				} catch (InvocationTargetException ex) {
+					throw ex.getCause();
+				}
+			}
+		}
+	}
+
+}
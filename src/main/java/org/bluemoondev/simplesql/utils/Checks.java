@@ -13,6 +13,8 @@
  */
 package org.bluemoondev.simplesql.utils;
 
+import org.bluemoondev.simplesql.columns.Codecs;
+
 /**
  * <strong>Project:</strong> SimpleSQL<br>
  * <strong>File:</strong> Checks.java<br>
@@ -25,13 +27,15 @@ package org.bluemoondev.simplesql.utils;
 public class Checks {
 
 	/**
-	 * Ensures the given object is a type supported by the SimpleSQL API
+	 * Ensures the given object is a type supported by the SimpleSQL API, which
+	 * is any type a registered {@link org.bluemoondev.simplesql.columns.ColumnCodec
+	 * ColumnCodec} binds
 	 *
 	 * @param o The object to check the validity of
 	 * @return True if the object's type is supported. False otherwise
 	 */
 	public static boolean isValidObject(Object o) {
-		return o instanceof Long || o instanceof Integer || o instanceof String || o instanceof Boolean;
+		return Codecs.isSupported(o);
 	}
 
 }
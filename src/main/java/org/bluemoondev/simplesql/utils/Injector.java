@@ -15,59 +15,95 @@ package org.bluemoondev.simplesql.utils;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-import java.util.logging.Level;
+import java.sql.Types;
+import java.util.Arrays;
 
-import org.bluemoondev.blutilities.debug.Log;
-import org.bluemoondev.simplesql.SimpleSQL;
+import org.bluemoondev.simplesql.columns.Codecs;
+import org.bluemoondev.simplesql.columns.ColumnCodec;
+import org.bluemoondev.simplesql.columns.SQLColumn;
 
 /**
  * <strong>Project:</strong> SimpleSQL<br>
  * <strong>File:</strong> Injector.java<br>
  * <p>
- * Used to inject data into a Prepared Statement
+ * Used to inject data into a Prepared Statement. The values are kept in an
+ * array sized for the statement, each along with the column it belongs to.
+ * The column picks the typed setter, so binding a value needs no lookups or
+ * type checks
  * </p>
  *
  * @author <a href = "https://bluemoondev.org"> Matt</a>
  */
 public class Injector {
 
-	private static final Log LOG = Log.get("SimpleSQL", Injector.class);
-
-	private Map<Integer, Object> injections;
+	private SQLColumn<?>[]	columns;
+	private Object[]		values;
+	private int				size;
 
 	/**
-	 * Creates a new injector
+	 * Creates a new injector that grows as values are put in
 	 */
 	public Injector() {
-		injections = new HashMap<>();
+		this(4);
 	}
 
 	/**
-	 * Maps data to be injected
+	 * Creates a new injector for a statement with the given number of
+	 * parameters
+	 *
+	 * @param size The number of parameters
+	 */
+	public Injector(int size) {
+		columns = new SQLColumn<?>[size];
+		values = new Object[size];
+	}
+
+	/**
+	 * Maps data to be injected. Without a column, the codec is looked up by the
+	 * type of the value every time it is injected
 	 *
 	 * @param key   The key/name where the value will be injected
 	 * @param value The value to get injected
 	 */
 	public void put(int key, Object value) {
-		injections.put(key, value);
+		put(key, null, value);
 	}
 
-	public void inject(PreparedStatement ps) {
-		for (Map.Entry<Integer, Object> e : injections.entrySet()) {
-			try {
-				int i = e.getKey();
-				Object o = e.getValue();
-				if (o instanceof Long) ps.setLong(i, (Long) o);
-				else if (o instanceof Integer) ps.setInt(i, (Integer) o);
-				else if (o instanceof String) ps.setString(i, (String) o);
-				else if (o instanceof Boolean) ps.setBoolean(i, (Boolean) o);
-			} catch (SQLException ex) {
-				LOG.error("Failed to inject data into the prepared sql statement", ex);
-			}
+	/**
+	 * Maps data to be injected
+	 *
+	 * @param key    The parameter index, starting at 1
+	 * @param column The column the value belongs to, which binds it
+	 * @param value  The value to get injected
+	 */
+	public void put(int key, SQLColumn<?> column, Object value) {
+		if (key > values.length) {
+			columns = Arrays.copyOf(columns, Math.max(key, values.length * 2));
+			values = Arrays.copyOf(values, columns.length);
 		}
+		columns[key - 1] = column;
+		values[key - 1] = value;
+		if (key > size) size = key;
+	}
+
+	/**
+	 * Binds every value to the statement
+	 *
+	 * @param  ps           The statement to bind to
+	 * @throws SQLException If a value could not be bound
+	 */
+	public void inject(PreparedStatement ps) throws SQLException {
+		for (int i = 0; i < size; i++) {
+			if (columns[i] != null) columns[i].bind(ps, i + 1, values[i]);
+			else bind(ps, i + 1, values[i]);
+		}
+	}
+
+	private static void bind(PreparedStatement ps, int i, Object o) throws SQLException {
+		ColumnCodec<Object> codec = Codecs.forValue(o);
+		if (codec != null && codec.getType().isInstance(o)) codec.bind(ps, i, o);
+		else if (o == null) ps.setNull(i, Types.NULL);
+		else ps.setObject(i, o);
 	}
 
 }
@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2020 Blue Moon Development
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bluemoondev.simplesql.utils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bluemoondev.simplesql.SimpleSQL;
+import org.bluemoondev.simplesql.columns.SQLColumn;
+import org.bluemoondev.simplesql.exceptions.SSQLException;
+
+/**
+ * <strong>Project:</strong> SimpleSQL<br>
+ * <strong>File:</strong> QueryTemplates.java<br>
+ * <p>
+ * Builds the SQL for each query shape of a table once and hands out the same
+ * string every time that shape is asked for again. A shape is the operation,
+ * the column it targets and the ordered list of columns in its WHERE clause
+ * </p>
+ *
+ * @author <a href = "https://bluemoondev.org"> Matt</a>
+ */
+public final class QueryTemplates {
+
+	/**
+	 * The kinds of statement a template can be built for
+	 */
+	public enum Operation {
+		/** <code>SELECT target FROM table WHERE ...</code> */
+		SELECT,
+		/** <code>SELECT 1 FROM table WHERE ... LIMIT 1</code> */
+		EXISTS,
+		/** <code>SELECT COUNT(*) FROM table WHERE ...</code> */
+		COUNT,
+		/** <code>SELECT SUM(target) FROM table WHERE ...</code> */
+		SUM,
+		/** <code>SELECT MIN(target) FROM table WHERE ...</code> */
+		MIN,
+		/** <code>SELECT MAX(target) FROM table WHERE ...</code> */
+		MAX,
+		/** <code>SELECT AVG(target) FROM table WHERE ...</code> */
+		AVG,
+		/**
+		 * <code>SELECT a, b, ... FROM table WHERE ...</code>, where the target
+		 * is the list of columns separated by <code>", "</code>
+		 */
+		ROW,
+		/** <code>UPDATE table SET target = ? WHERE ...</code> */
+		UPDATE,
+		/** <code>DELETE FROM table WHERE ...</code> */
+		DELETE,
+		/** <code>INSERT INTO table (columns...) VALUES (?...)</code> */
+		INSERT,
+		/**
+		 * Inserts the key columns and target, or updates the target if the keys
+		 * already exist. See {@link org.bluemoondev.simplesql.Database#getUpsertQuery(String, String, String...)
+		 * Database.getUpsertQuery}
+		 */
+		UPSERT
+	}
+
+	private final String						tableName;
+	private final Map<String, SQLColumn<?>>		columns;
+	private final Map<Shape, String>			templates;
+
+	/**
+	 * Creates the template cache for a table
+	 *
+	 * @param tableName The name of the table
+	 * @param columns   The table's columns, used to validate column names the
+	 *                  first time a shape is built
+	 */
+	public QueryTemplates(String tableName, Map<String, SQLColumn<?>> columns) {
+		this.tableName = tableName;
+		this.columns = columns;
+		templates = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Gets the SQL for a shape whose WHERE columns are the names of the given
+	 * DataSets, in order. For {@link Operation#INSERT INSERT} the DataSets are
+	 * the inserted columns instead
+	 *
+	 * @param  op            The operation
+	 * @param  target        The column selected or updated, or null if the
+	 *                       operation does not target one
+	 * @param  where         The key-value pairs the statement filters on
+	 * @return               The SQL for this shape
+	 * @throws SSQLException If one of the column names is not part of this
+	 *                       table
+	 */
+	public String get(Operation op, String target, DataSet... where) throws SSQLException {
+		Shape shape = new Shape(op, target, null, where);
+		String sql = templates.get(shape);
+		return sql != null ? sql : build(shape);
+	}
+
+	/**
+	 * Gets the SQL for a shape whose WHERE columns are given by name. For
+	 * {@link Operation#INSERT INSERT} the names are the inserted columns instead
+	 *
+	 * @param  op            The operation
+	 * @param  target        The column selected or updated, or null if the
+	 *                       operation does not target one
+	 * @param  where         The names of the columns the statement filters on
+	 * @return               The SQL for this shape
+	 * @throws SSQLException If one of the column names is not part of this
+	 *                       table
+	 */
+	public String getFor(Operation op, String target, String... where) throws SSQLException {
+		Shape shape = new Shape(op, target, where, null);
+		String sql = templates.get(shape);
+		return sql != null ? sql : build(shape);
+	}
+
+	/**
+	 * @return The number of shapes built so far
+	 */
+	public int size() {
+		return templates.size();
+	}
+
+	private String build(Shape shape) throws SSQLException {
+		String[] names = new String[shape.length()];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = shape.name(i);
+			if (!columns.containsKey(names[i])) throw new SSQLException(names[i] + " is not a valid column name");
+		}
+		if (shape.op == Operation.ROW) {
+			for (String name : shape.target.split(", ")) {
+				if (!columns.containsKey(name)) throw new SSQLException(name + " is not a valid column name");
+			}
+		} else if (shape.target != null && !columns.containsKey(shape.target))
+			throw new SSQLException(shape.target + " is not a valid column name");
+
+		StringBuilder sb = new StringBuilder();
+		switch (shape.op) {
+			case SELECT:
+				sb.append("SELECT ").append(shape.target).append(" FROM ").append(tableName);
+				where(sb, names);
+				break;
+			case EXISTS:
+				// Stops at the first match and sends no columns back
+				sb.append("SELECT 1 FROM ").append(tableName);
+				where(sb, names);
+				sb.append(" LIMIT 1");
+				break;
+			case COUNT:
+				sb.append("SELECT COUNT(*) FROM ").append(tableName);
+				where(sb, names);
+				break;
+			case SUM:
+			case MIN:
+			case MAX:
+			case AVG:
+				sb.append("SELECT ").append(shape.op.name()).append("(").append(shape.target).append(") FROM ")
+						.append(tableName);
+				where(sb, names);
+				break;
+			case ROW:
+				sb.append("SELECT ").append(shape.target).append(" FROM ").append(tableName);
+				where(sb, names);
+				break;
+			case UPDATE:
+				sb.append("UPDATE ").append(tableName).append(" SET ").append(columns.get(shape.target).set());
+				where(sb, names);
+				break;
+			case DELETE:
+				sb.append("DELETE FROM ").append(tableName);
+				where(sb, names);
+				break;
+			case INSERT:
+				sb.append("INSERT INTO ").append(tableName).append(" (").append(String.join(", ", names))
+						.append(") VALUES (");
+				for (int i = 0; i < names.length; i++) { sb.append(i == 0 ? "?" : ", ?"); }
+				sb.append(")");
+				break;
+			case UPSERT:
+				sb.append(SimpleSQL.getDatabase().getUpsertQuery(tableName, shape.target, names));
+				break;
+		}
+		sb.append(";");
+
+		String sql = sb.toString();
+		String prev = templates.putIfAbsent(new Shape(shape.op, shape.target, names, null), sql);
+		return prev != null ? prev : sql;
+	}
+
+	private void where(StringBuilder sb, String[] names) {
+		for (int i = 0; i < names.length; i++) {
+			sb.append(i == 0 ? " WHERE " : " AND ").append(columns.get(names[i]).set());
+		}
+	}
+
+	/**
+	 * The cache key. A lookup key wraps the caller's DataSet array directly so
+	 * that no names have to be copied on the hot path; the stored key always
+	 * holds its own copy of the names
+	 */
+	private static final class Shape {
+
+		private final Operation	op;
+		private final String	target;
+		private final String[]	names;
+		private final DataSet[]	data;
+		private final int		hash;
+
+		private Shape(Operation op, String target, String[] names, DataSet[] data) {
+			this.op = op;
+			this.target = target;
+			this.names = names;
+			this.data = data;
+			int h = op.hashCode() * 31 + (target == null ? 0 : target.hashCode());
+			for (int i = 0; i < length(); i++) { h = h * 31 + name(i).hashCode(); }
+			hash = h;
+		}
+
+		private int length() {
+			return names != null ? names.length : data == null ? 0 : data.length;
+		}
+
+		private String name(int i) {
+			return names != null ? names[i] : data[i].name;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Shape)) return false;
+			Shape s = (Shape) o;
+			if (hash != s.hash || op != s.op || length() != s.length()) return false;
+			if (target == null ? s.target != null : !target.equals(s.target)) return false;
+			for (int i = 0; i < length(); i++) { if (!name(i).equals(s.name(i))) return false; }
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return op + " " + target + " " + (names != null ? Arrays.toString(names) : Arrays.toString(data));
+		}
+	}
+
+}
@@ -14,12 +14,19 @@
 package org.bluemoondev.simplesql.utils;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 
 import org.bluemoondev.blutilities.debug.Log;
+import org.bluemoondev.simplesql.Database;
 import org.bluemoondev.simplesql.SQLTable;
+import org.bluemoondev.simplesql.SQLite;
 import org.bluemoondev.simplesql.SimpleSQL;
 import org.bluemoondev.simplesql.exceptions.SSQLException;
 
@@ -50,14 +57,58 @@ public class TableManager {
 	/**
 	 * Creates the tables being managed. Called by
 	 * {@link org.bluemoondev.simplesql.SimpleSQL#init(org.bluemoondev.simplesql.Database)
-	 * SimpleSQL.init(database)}
+	 * SimpleSQL.init(database)}. The tables are created in parallel, up to one
+	 * per pooled connection. A SQLite file only has one writer, so there they
+	 * are created one at a time
 	 */
 	public static void createTables() {
-		TABLES.entrySet().forEach((e) -> {
+		List<SQLTable> tables = new ArrayList<>(TABLES.values());
+		Database db;
+		try {
+			db = SimpleSQL.getDatabase();
+		} catch (SSQLException ex) {
+			LOG.error("Failed to create SQL tables", ex);
+			return;
+		}
+		int threads = db instanceof SQLite ? 1 : Math.min(tables.size(), db.getPoolConfig().getMaxSize());
+		if (threads <= 1) {
+			tables.forEach(TableManager::create);
+			return;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "SimpleSQL-create-tables");
+			t.setDaemon(true);
+			return t;
+		});
+		try {
+			CompletableFuture.allOf(tables.stream().map(t -> CompletableFuture.runAsync(() -> create(t), executor))
+					.toArray(CompletableFuture[]::new)).join();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static void create(SQLTable table) {
+		try {
+			table.create();
+		} catch (SQLException | SSQLException ex) {
+			LOG.error("Failed to create SQL table: " + table.getName(), ex);
+		}
+	}
+
+	/**
+	 * Writes out every table's pending write-behind updates. A table that fails
+	 * to flush is logged and the rest are still flushed
+	 *
+	 * @see org.bluemoondev.simplesql.SQLTable#enableWriteBehind(long, int)
+	 */
+	public static void flushTables() {
+		TABLES.values().forEach((table) -> {
 			try {
-				e.getValue().create();
-			} catch (SQLException | SSQLException ex) {
-				LOG.error("Failed to create SQL table: " + e.getValue().getName(), ex);
+				table.flush();
+			} catch (SSQLException ex) {
+				LOG.error("Failed to flush pending writes to SQL table: " + table.getName(), ex);
 			}
 		});
 	}
@@ -17,6 +17,7 @@ import java.io.File;
 
 import org.bluemoondev.simplesql.SQLite;
 import org.bluemoondev.simplesql.SimpleSQL;
+import org.bluemoondev.simplesql.exceptions.SSQLException;
 
 /**
  * <strong>Project:</strong> SimpleSQL<br>
@@ -68,9 +69,26 @@ public class Main {
 		System.out.println(KEY.getStudentName(2L));
 	}
 	
-	public static void main(String[] args) {
+	/**
+	 * Writes with int keys and reads with long ones through the row cache,
+	 * which has to treat them as the same row
+	 */
+	public static void testMixedKeys(String[] args) throws SSQLException {
+		KEY.enableCache(100, 60_000);
+		KEY.newStudent(3L, "Sara Bananas");
+		KEY.update(3, TestTableWithKey.SCORE.name, 5);
+		KEY.getInt(3L, TestTableWithKey.SCORE.name);
+		KEY.update(3, TestTableWithKey.SCORE.name, 7);
+		int score = KEY.getInt(3L, TestTableWithKey.SCORE.name);
+		System.out.println("Score after int key update: " + score);
+		if (score != 7) throw new IllegalStateException("Expected 7 but the cache returned " + score);
+		KEY.disableCache();
+	}
+
+	public static void main(String[] args) throws SSQLException {
 		SimpleSQL.init(new SQLite(new File("./database.db")));
 		testWithKey(args);
+		testMixedKeys(args);
 	}
 
 }
@@ -13,6 +13,7 @@
  */
 package org.bluemoondev.simplesql.test;
 
+import org.bluemoondev.simplesql.Row;
 import org.bluemoondev.simplesql.SQLTable;
 import org.bluemoondev.simplesql.columns.BoolColumn;
 import org.bluemoondev.simplesql.columns.IntColumn;
@@ -42,6 +43,8 @@ public class TestTable extends SQLTable {
 
 	public TestTable() {
 		super("simplesqltest45");
+		// Every lookup below is by first and last name
+		addIndex(FIRSTNAME.name, LASTNAME.name);
 	}
 
 	public void setGrade(String first, String last, String grade) {
@@ -96,6 +99,16 @@ public class TestTable extends SQLTable {
 		}
 	}
 
+	public Row getStudent(String first, String last) {
+		try {
+			return getRow(new String[] { AGE.name, PASSING.name, GRADE.name }, new DataSet(FIRSTNAME.name, first),
+					new DataSet(LASTNAME.name, last));
+		} catch (SSQLException ex) {
+			ex.printStackTrace();
+			return null;
+		}
+	}
+
 	public int getAge(String first, String last) {
 		try {
 			return getInt(AGE.name, new DataSet(FIRSTNAME.name, first), new DataSet(LASTNAME.name, last));